@@ -1,42 +1,42 @@
 package study.querydsl.controller;
 
 import jakarta.annotation.PostConstruct;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-import study.querydsl.entity.Member;
-import study.querydsl.entity.Team;
+import study.querydsl.dto.SeedReport;
+import study.querydsl.repository.MemberSeeder;
 
+/*
+    로컬 기동시 샘플 데이터 (MemberSeeder)
+    기본은 team 2개 + member 100명, 성능 테스트용 데이터셋은 설정으로 키운다
+    ex) --querydsl.seed.rows=10000000 --querydsl.seed.threads=4
+ */
+@Slf4j
 @Profile("local")
 @Component
-@RequiredArgsConstructor
 public class InitMember {
-    private final InitMemberService initMemberService;
+    private final MemberSeeder memberSeeder;
+    private final long rows;
+    private final int teams;
+    private final int threads;
 
-    @PostConstruct
-    public void init(){
-        initMemberService.init();
+    public InitMember(MemberSeeder memberSeeder,
+                      @Value("${querydsl.seed.rows:100}") long rows,
+                      @Value("${querydsl.seed.teams:2}") int teams,
+                      @Value("${querydsl.seed.threads:1}") int threads) {
+        this.memberSeeder = memberSeeder;
+        this.rows = rows;
+        this.teams = teams;
+        this.threads = threads;
     }
 
-    @Component
-    static class InitMemberService{
-        @PersistenceContext
-        private EntityManager em;
-
-        @Transactional
-        public void init(){
-            Team teamA = new Team("teamA");
-            Team teamB = new Team("teamB");
-            em.persist(teamA);
-            em.persist(teamB);
-
-            for (int i = 0 ;i < 100 ; i ++){
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member" + i, i , selectedTeam));
-            }
-        }
+    @PostConstruct
+    public void init(){
+        SeedReport report = memberSeeder.seed(rows, teams, threads);
+        log.info("seeded {} members / {} teams with {} thread(s) in {}ms ({} rows/sec)",
+                report.getRows(), report.getTeams(), report.getThreads(), report.getMillis(),
+                String.format("%.0f", report.getRowsPerSecond()));
     }
 }
@@ -1,35 +1,157 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.querydsl.dto.CursorSlice;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberImportResult;
+import study.querydsl.repository.MemberImporter;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.InvalidSearchRequestException;
+import study.querydsl.repository.support.KnownTotalTokens;
+import study.querydsl.repository.support.PagingStrategy;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
+    private static final String TOTAL_TOKEN_HEADER = "X-Total-Token";
+    private static final String[] MEMBER_TABLES = {"member", "team"};
+    private static final String TEXT_CSV = "text/csv";
+
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final KnownTotalTokens knownTotalTokens;
+    private final MemberImporter memberImporter;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
         return memberJpaRepository.search(condition);
     }
 
+    // 전체 결과를 한 줄에 하나씩(NDJSON) 읽는 대로 내려보낸다 -> 건수와 상관없이 메모리 사용량 일정
+    @GetMapping("/v1/members/export")
+    public ResponseEntity<StreamingResponseBody> exportMemberV1(MemberSearchCondition condition) {
+        StreamingResponseBody body = out -> memberJpaRepository.streamSearch(condition, dto -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(dto));
+                out.write('\n');
+            } catch (IOException e) { // 클라이언트가 연결을 끊으면 커서를 닫고 중단
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /*
+        CSV(text/csv) 또는 NDJSON 업로드를 읽는 대로 chunk 단위로 저장 (MemberImporter)
+        응답은 NDJSON : chunk 커밋마다 progress, 실패한 줄마다 failure, 마지막에 result 한 줄
+        curl -X POST -H 'Content-Type: text/csv' --data-binary @members.csv localhost:8080/v1/members/import
+     */
+    @PostMapping(value = "/v1/members/import", consumes = {TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> importMemberV1(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                                InputStream upload) {
+        MemberImporter.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? MemberImporter.Format.NDJSON
+                : MemberImporter.Format.CSV;
+        StreamingResponseBody body = out -> {
+            MemberImportResult result = memberImporter.importMembers(upload, format,
+                    progress -> writeLine(out, progress),
+                    failure -> writeLine(out, failure));
+            writeLine(out, result);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // 한 줄씩 바로 flush -> 클라이언트가 진행 상황을 바로 본다
+    private void writeLine(OutputStream out, Object event) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(event));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+        /v2, /v3 는 응답 헤더 X-Total-Token 으로 전체 건수 토큰을 내려준다.
+        같은 검색 조건으로 다음 페이지를 요청할때 그 토큰을 요청 헤더로 다시 보내면
+        그 사이 member / team 쓰기가 없었던 경우 카운트 쿼리 없이 전체 건수를 재사용한다.
+     */
     @GetMapping("/v2/members")
-    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageSimple(condition, pageable);
+    public ResponseEntity<Page<MemberTeamDto>> searchMemberV2(MemberSearchCondition condition, Pageable pageable,
+                                                              @RequestHeader(name = TOTAL_TOKEN_HEADER, required = false) String totalToken) {
+        long version = knownTotalTokens.currentVersion(MEMBER_TABLES);
+        Long knownTotal = knownTotalTokens.verify(totalToken, condition.fields(), MEMBER_TABLES);
+        Page<MemberTeamDto> page = memberRepository.searchPageSimple(condition, pageable, knownTotal);
+        return withTotalToken(condition, page, version);
     }
 
+    // paging=WINDOW_COUNT 면 컨텐츠 + 전체 건수를 한번에 (벤치마크용으로 호출마다 선택)
+    // paging 을 지정하면 검색 캐시를 거치지 않고 그 전략을 매번 실행한다 (없으면 TWO_QUERIES + 캐시)
     @GetMapping("/v3/members")
-    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageComplex(condition, pageable);
+    public ResponseEntity<Page<MemberTeamDto>> searchMemberV3(MemberSearchCondition condition, Pageable pageable,
+                                                              @RequestParam(required = false) PagingStrategy paging,
+                                                              @RequestHeader(name = TOTAL_TOKEN_HEADER, required = false) String totalToken) {
+        long version = knownTotalTokens.currentVersion(MEMBER_TABLES);
+        Long knownTotal = knownTotalTokens.verify(totalToken, condition.fields(), MEMBER_TABLES);
+        Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, pageable, paging, knownTotal);
+        return withTotalToken(condition, page, version);
+    }
+
+    // version 은 조회 전에 읽은 값 (조회 도중 쓰기가 있었다면 다음 요청에서 토큰이 거절된다)
+    private ResponseEntity<Page<MemberTeamDto>> withTotalToken(MemberSearchCondition condition, Page<MemberTeamDto> page, long version) {
+        String token = knownTotalTokens.issue(condition.fields(), page.getTotalElements(), version);
+        return ResponseEntity.ok()
+                .header(TOTAL_TOKEN_HEADER, token)
+                .body(page);
+    }
+
+    // 커서 기반 페이징 : /v4/members?size=20&sort=age,desc&cursor={이전 응답의 nextCursor}
+    @GetMapping("/v4/members")
+    public CursorSlice<MemberTeamDto> searchMemberV4(MemberSearchCondition condition,
+                                                     @RequestParam(required = false) String cursor,
+                                                     Pageable pageable) {
+        return memberRepository.searchByCursor(condition, cursor, pageable);
+    }
+
+    // 잘못된 커서 / 정렬 컬럼 등 요청 값 오류는 500 이 아니라 400
+    @ExceptionHandler(InvalidSearchRequestException.class)
+    public ProblemDetail invalidSearchRequest(InvalidSearchRequestException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    // 전체 건수 없이 다음 페이지 여부만 (무한 스크롤, 카운트 쿼리 없음)
+    @GetMapping("/v5/members")
+    public Slice<MemberTeamDto> searchMemberV5(MemberSearchCondition condition, Pageable pageable) {
+        return memberRepository.searchSlice(condition, pageable);
     }
 }
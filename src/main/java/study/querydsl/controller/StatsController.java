@@ -0,0 +1,66 @@
+package study.querydsl.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.repository.MemberCountCache;
+import study.querydsl.repository.MemberSearchCache;
+import study.querydsl.repository.UsernameFilter;
+import study.querydsl.repository.support.CacheStats;
+import study.querydsl.repository.support.RegionCacheStats;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class StatsController {
+    private final MemberCountCache memberCountCache;
+    private final MemberSearchCache memberSearchCache;
+    private final UsernameFilter usernameFilter;
+    private final EntityManagerFactory emf;
+
+    @GetMapping("/stats/count-cache")
+    public CacheStats countCacheStats() {
+        return memberCountCache.stats();
+    }
+
+    @GetMapping("/stats/search-cache")
+    public Map<String, Object> searchCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", memberSearchCache.isEnabled());
+        stats.put("cache", memberSearchCache.stats());
+        stats.put("bypasses", memberSearchCache.bypasses()); // 트랜잭션에 쓰기가 있어서 캐시를 거치지 않은 횟수
+        stats.put("invalidations", memberSearchCache.invalidations());
+        stats.put("coalesced", memberSearchCache.coalesced()); // 동시에 들어온 같은 검색의 결과를 기다려서 받은 횟수
+        return stats;
+    }
+
+    @GetMapping("/stats/username-filter")
+    public Map<String, Object> usernameFilterStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("usable", usernameFilter.isUsable()); // false 면 모든 조회가 그대로 쿼리 실행 (재생성 대기 등)
+        stats.put("hits", usernameFilter.hits());
+        stats.put("shortCircuits", usernameFilter.shortCircuits()); // 쿼리 없이 빈 결과
+        stats.put("falsePositives", usernameFilter.falsePositives()); // 필터는 있다고 했지만 결과가 없었던 횟수
+        stats.put("passThroughs", usernameFilter.passThroughs());
+        return stats;
+    }
+
+    @GetMapping("/stats/second-level-cache")
+    public List<RegionCacheStats> secondLevelCacheStats() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .map(region -> {
+                    CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+                    return new RegionCacheStats(region, regionStatistics.getHitCount(), regionStatistics.getMissCount(), regionStatistics.getPutCount());
+                })
+                .toList();
+    }
+}
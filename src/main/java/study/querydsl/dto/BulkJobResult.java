@@ -0,0 +1,16 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+// member 벌크 job 실행 결과 (affected / chunks 는 이어서 실행한 경우 이전 실행분까지 합친 값)
+@Data
+public class BulkJobResult {
+    private final String name;
+    private final String operation;
+    private final long affected;
+    private final int chunks;
+    private final long lastId;
+    private final long maxId;
+    private final boolean completed;
+    private final long millis; // 이번 실행 시간
+}
@@ -0,0 +1,14 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+// member import : 저장하지 못한 줄 (줄 번호는 1부터, 헤더 포함)
+@Data
+public class MemberImportFailure {
+    private final long line;
+    private final String reason;
+
+    public String getType() {
+        return "failure";
+    }
+}
@@ -0,0 +1,18 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+// member import : chunk 하나를 커밋할 때마다
+@Data
+public class MemberImportProgress {
+    private final int chunk;
+    private final long lines; // 지금까지 읽은 줄 수
+    private final int imported; // 이번 chunk 에서 저장한 건수
+    private final int failed;
+    private final long totalImported;
+    private final long totalFailed;
+
+    public String getType() {
+        return "progress";
+    }
+}
@@ -0,0 +1,21 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+// member import 최종 결과
+@Data
+public class MemberImportResult {
+    private final long lines;
+    private final long imported;
+    private final long failed;
+    private final int chunks;
+    private final long millis;
+
+    public String getType() {
+        return "result";
+    }
+
+    public double getRowsPerSecond() {
+        return millis == 0 ? imported : imported * 1000.0 / millis;
+    }
+}
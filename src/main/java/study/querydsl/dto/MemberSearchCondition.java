@@ -1,6 +1,10 @@
 package study.querydsl.dto;
 
 import lombok.Data;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
 
 @Data
 public class MemberSearchCondition {
@@ -9,4 +13,19 @@ public class MemberSearchCondition {
     private Integer ageGoe; // 나이보다 크거나 같거나
     private Integer ageLoe; // 나이보다 적거나 같거나
 
+    // 캐시 키용 : 검색 조건(hasText)과 같은 규칙으로 빈 문자열은 조건 없음(null) 으로 맞춘 복사본
+    public MemberSearchCondition normalized() {
+        MemberSearchCondition normalized = new MemberSearchCondition();
+        normalized.setUsername(StringUtils.hasText(username) ? username : null);
+        normalized.setTeamName(StringUtils.hasText(teamName) ? teamName : null);
+        normalized.setAgeGoe(ageGoe);
+        normalized.setAgeLoe(ageLoe);
+        return normalized;
+    }
+
+    // 서명용 : normalized() 의 필드 값을 고정된 순서로 (null 포함, toString 처럼 값에 따라 경계가 바뀌지 않도록 필드별로)
+    public List<Object> fields() {
+        MemberSearchCondition normalized = normalized();
+        return Arrays.asList(normalized.username, normalized.teamName, normalized.ageGoe, normalized.ageLoe);
+    }
 }
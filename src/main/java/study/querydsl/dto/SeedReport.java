@@ -0,0 +1,16 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+// MemberSeeder 적재 결과
+@Data
+public class SeedReport {
+    private final long rows;
+    private final int teams;
+    private final int threads;
+    private final long millis;
+
+    public double getRowsPerSecond() {
+        return millis == 0 ? rows : rows * 1000.0 / millis;
+    }
+}
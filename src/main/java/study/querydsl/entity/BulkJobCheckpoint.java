@@ -0,0 +1,71 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/*
+    MemberBulkJobs 의 진행 상황 (job 이름당 한 행)
+    chunk 의 update / delete 와 같은 트랜잭션에서 lastId 를 올린다 -> 중간에 죽어도 커밋된 chunk 다음부터 이어서 실행
+    job 정의(set 목록 + where 조건)는 길이 제한이 없으므로 비교는 전체 정의의 SHA-256 으로,
+    definition 컬럼은 사람이 보기 위한 앞부분만 저장한다
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class BulkJobCheckpoint {
+    private static final int MAX_DEFINITION_LENGTH = 1000;
+
+    @Id
+    @Column(name = "job_name")
+    private String name;
+    private String operation;
+    @Column(length = MAX_DEFINITION_LENGTH)
+    private String definition; // 표시용 (잘릴 수 있음)
+    @Column(length = 64)
+    private String definitionHash; // 같은 이름으로 다른 정의의 job 을 이어서 실행하지 않도록
+    private long lastId; // 여기까지(포함) 처리한 member id
+    private long maxId; // 시작할 때의 대상 최대 id (이후 추가된 member 는 대상 아님)
+    private long affected;
+    private int chunks;
+    private boolean completed;
+    private LocalDateTime updatedAt;
+
+    public BulkJobCheckpoint(String name, String operation, String definition, long lastId, long maxId) {
+        this.name = name;
+        this.operation = operation;
+        this.definition = definition.length() > MAX_DEFINITION_LENGTH ? definition.substring(0, MAX_DEFINITION_LENGTH) : definition;
+        this.definitionHash = hash(definition);
+        this.lastId = lastId;
+        this.maxId = maxId;
+        this.completed = lastId >= maxId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void advance(long lastId, long affected) {
+        this.lastId = lastId;
+        this.affected += affected;
+        this.chunks++;
+        this.completed = lastId >= maxId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public boolean isDefinedAs(String definition) {
+        return definitionHash.equals(hash(definition));
+    }
+
+    private static String hash(String definition) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(definition.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) { // 모든 JVM 에 있는 알고리즘
+            throw new IllegalStateException(e);
+        }
+    }
+}
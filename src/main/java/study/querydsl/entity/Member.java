@@ -2,15 +2,25 @@ package study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.Hibernate;
 
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
+@Table(indexes = { // 키셋 페이징 정렬 컬럼 + id (seek 조건을 인덱스 범위 스캔으로 처리)
+        @Index(name = "idx_member_age_id", columnList = "age, member_id"),
+        @Index(name = "idx_member_username_id", columnList = "username, member_id")
+})
 public class Member {
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "member_seq")
+    @GenericGenerator(name = "member_seq", strategy = "study.querydsl.repository.support.PooledLoSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq")) // pooled-lo (allocation_size 단위)
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -32,7 +42,26 @@ public class Member {
             changeTeam(team);
         }
     }
+    /*
+        연관관계 편의 메소드
+        Team.members 는 이미 메모리에 올라와 있을 때만 맞춰준다 (DB 에는 member.team_id 만 반영된다)
+        초기화 전(지연 로딩 프록시 / 컬렉션)이면 건드리지 않는다 -> 나중에 로딩될 때 DB 에서 읽어온다
+        - 팀의 members 가 백만건이어도 member 한명 추가에 전체를 로딩하지 않는다
+     */
     public void changeTeam(Team team) {
+        Team previous = this.team;
         this.team = team;
-        team.getMembers().add(this);
+        if (previous == team) {
+            return;
+        }
+        if (previous != null && isLoaded(previous)) {
+            previous.getMembers().remove(this);
+        }
+        if (isLoaded(team)) {
+            team.getMembers().add(this);
+        }
+    }
+
+    private static boolean isLoaded(Team team) {
+        return Hibernate.isInitialized(team) && Hibernate.isInitialized(team.getMembers());
     } }
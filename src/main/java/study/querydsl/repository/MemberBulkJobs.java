@@ -0,0 +1,221 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.BulkJobResult;
+import study.querydsl.entity.BulkJobCheckpoint;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static study.querydsl.entity.QMember.member;
+
+/*
+    member 벌크 update / delete 를 id 구간(chunk) 으로 나눠서 실행
+    queryFactory.update(member).set(...).where(...).execute() 한번이면 전체 대상 행의 락을 끝날 때까지 잡고 있으므로
+    - 시작할 때 조건에 맞는 min / max id 를 구하고, [lastId + 1, lastId + chunkSize] 구간마다 트랜잭션 하나로 실행
+      (where 조건 and member.id between from and to -> PK 범위 스캔, 락은 chunk 커밋까지만)
+    - chunk 의 쓰기와 BulkJobCheckpoint.lastId 갱신을 같은 트랜잭션에서 커밋
+      -> 중간에 죽으면 같은 jobName 으로 다시 호출해서 커밋된 chunk 다음부터 이어서 실행 (완료된 job 은 결과만 반환)
+    - chunk 커밋 전 flush / clear : OSIV 처럼 EntityManager 가 chunk 사이에 유지되는 경우에도
+      벌크 쓰기 이전에 읽어둔 Member 가 영속성 컨텍스트에 stale 로 남지 않게
+      (검색 / count 캐시, username 필터는 TableWriteTracker 가 벌크 SQL 을 보고 무효화한다)
+    - maxChunksPerSecond 로 chunk 실행 속도 제한 (0 이면 제한 없음)
+    chunk 마다 커밋하므로 트랜잭션 밖에서 호출해야 한다
+    시작 후 추가된 member (id > maxId) 는 대상이 아니다
+ */
+@Component
+public class MemberBulkJobs {
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate tx;
+    private final int chunkSize;
+    private final int maxChunksPerSecond;
+
+    public MemberBulkJobs(EntityManager em, PlatformTransactionManager transactionManager,
+                          @Value("${querydsl.bulk-job.chunk-size:10000}") int chunkSize,
+                          @Value("${querydsl.bulk-job.max-chunks-per-second:0}") int maxChunksPerSecond) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.tx = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxChunksPerSecond = maxChunksPerSecond;
+    }
+
+    // assignments : clause -> clause.set(member.age, member.age.add(1)) (chunk 마다 새 update 절에 적용, 시작할 때 job 정의를 만들려고 한번 더)
+    public BulkJobResult update(String jobName, Predicate predicate, Consumer<JPAUpdateClause> assignments) {
+        return update(jobName, predicate, assignments, chunkSize);
+    }
+
+    public BulkJobResult update(String jobName, Predicate predicate, Consumer<JPAUpdateClause> assignments, int chunkSize) {
+        return run(jobName, "update", definition("update " + assignments(assignments), predicate), predicate, chunkSize, (from, to) -> {
+            JPAUpdateClause clause = queryFactory.update(member);
+            assignments.accept(clause);
+            return clause.where(predicate, member.id.between(from, to)).execute();
+        });
+    }
+
+    public BulkJobResult delete(String jobName, Predicate predicate) {
+        return delete(jobName, predicate, chunkSize);
+    }
+
+    public BulkJobResult delete(String jobName, Predicate predicate, int chunkSize) {
+        return run(jobName, "delete", definition("delete", predicate), predicate, chunkSize, (from, to) -> {
+            JPADeleteClause clause = queryFactory.delete(member);
+            return clause.where(predicate, member.id.between(from, to)).execute();
+        });
+    }
+
+    // 저장된 진행 상황 (없으면 null)
+    public BulkJobCheckpoint checkpoint(String jobName) {
+        return em.find(BulkJobCheckpoint.class, jobName);
+    }
+
+    // 같은 이름으로 처음부터 다시 실행하려면 진행 상황을 지운다
+    public void reset(String jobName) {
+        tx.executeWithoutResult(status -> {
+            BulkJobCheckpoint checkpoint = em.find(BulkJobCheckpoint.class, jobName);
+            if (checkpoint != null) {
+                em.remove(checkpoint);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Chunk {
+        long execute(long from, long to);
+    }
+
+    private BulkJobResult run(String jobName, String operation, String definition, Predicate predicate, int chunkSize, Chunk chunk) {
+        if (!StringUtils.hasText(jobName) || chunkSize < 1) {
+            throw new IllegalArgumentException("jobName=" + jobName + ", chunkSize=" + chunkSize);
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Bulk job '" + jobName + "' commits per chunk and must not run inside a transaction");
+        }
+        long start = System.nanoTime();
+        BulkJobCheckpoint checkpoint = tx.execute(status -> checkpointFor(jobName, operation, definition, predicate));
+
+        long intervalNanos = maxChunksPerSecond > 0 ? 1_000_000_000L / maxChunksPerSecond : 0;
+        long nextChunkAt = System.nanoTime();
+        while (!checkpoint.isCompleted()) {
+            throttle(nextChunkAt);
+            nextChunkAt = System.nanoTime() + intervalNanos;
+            long from = checkpoint.getLastId() + 1;
+            long to = Math.min(checkpoint.getMaxId(), checkpoint.getLastId() + chunkSize);
+            checkpoint = tx.execute(status -> {
+                // 같은 job 을 동시에 실행하면 한쪽은 여기서 기다렸다가 구간이 어긋난 것을 보고 멈춘다
+                BulkJobCheckpoint current = em.find(BulkJobCheckpoint.class, jobName, LockModeType.PESSIMISTIC_WRITE);
+                if (current == null || current.getLastId() != from - 1) {
+                    throw new IllegalStateException("Bulk job '" + jobName + "' is running elsewhere or was reset");
+                }
+                current.advance(to, chunk.execute(from, to));
+                em.flush();
+                em.clear();
+                return current;
+            });
+        }
+        return new BulkJobResult(checkpoint.getName(), checkpoint.getOperation(), checkpoint.getAffected(),
+                checkpoint.getChunks(), checkpoint.getLastId(), checkpoint.getMaxId(), checkpoint.isCompleted(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // 이어서 실행이면 저장된 진행 상황, 처음이면 대상 id 범위를 구해서 새로 저장
+    private BulkJobCheckpoint checkpointFor(String jobName, String operation, String definition, Predicate predicate) {
+        BulkJobCheckpoint checkpoint = em.find(BulkJobCheckpoint.class, jobName);
+        if (checkpoint != null) {
+            if (!checkpoint.isDefinedAs(definition)) {
+                throw new IllegalStateException("Bulk job '" + jobName + "' was started as [" + checkpoint.getDefinition()
+                        + "], not [" + definition + "]");
+            }
+            return checkpoint;
+        }
+        Tuple range = queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .where(predicate)
+                .fetchOne();
+        Long minId = range == null ? null : range.get(member.id.min());
+        Long maxId = range == null ? null : range.get(member.id.max());
+        checkpoint = minId == null
+                ? new BulkJobCheckpoint(jobName, operation, definition, 0, 0) // 대상 없음 -> 바로 완료
+                : new BulkJobCheckpoint(jobName, operation, definition, minId - 1, maxId);
+        em.persist(checkpoint);
+        return checkpoint;
+    }
+
+    private static String definition(String statement, Predicate predicate) {
+        return statement + " where " + (predicate == null ? "(all)" : predicate.toString());
+    }
+
+    // 'set member.age = member.age + 1000' : 같은 where 조건이라도 set 이 다르면 다른 job
+    // (JPAUpdateClause.toString 은 상수를 ?1 로 바꾸므로 set 호출을 직접 기록한다)
+    private String assignments(Consumer<JPAUpdateClause> assignments) {
+        AssignmentRecorder recorder = new AssignmentRecorder(em);
+        assignments.accept(recorder);
+        return "set " + String.join(", ", recorder.assignments.values());
+    }
+
+    // 실행하지 않고 set 목록만 모으는 update 절 (같은 경로에 다시 set 하면 JPAUpdateClause 처럼 덮어쓴다)
+    private static final class AssignmentRecorder extends JPAUpdateClause {
+        private final Map<Path<?>, String> assignments = new LinkedHashMap<>();
+
+        private AssignmentRecorder(EntityManager em) {
+            super(em, member);
+        }
+
+        @Override
+        public <T> JPAUpdateClause set(Path<T> path, T value) {
+            assignments.put(path, path + " = " + value);
+            return super.set(path, value);
+        }
+
+        @Override
+        public <T> JPAUpdateClause set(Path<T> path, Expression<? extends T> expression) {
+            assignments.put(path, path + " = " + expression);
+            return super.set(path, expression);
+        }
+
+        @Override
+        public <T> JPAUpdateClause setNull(Path<T> path) {
+            assignments.put(path, path + " = null");
+            return super.setNull(path);
+        }
+
+        @Override
+        public JPAUpdateClause set(List<? extends Path<?>> paths, List<?> values) {
+            for (int i = 0; i < paths.size(); i++) {
+                assignments.put(paths.get(i), paths.get(i) + " = " + values.get(i));
+            }
+            return super.set(paths, values);
+        }
+    }
+
+    private static void throttle(long until) {
+        long waitNanos = until - System.nanoTime();
+        if (waitNanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while throttling bulk job", e); // 진행 상황은 남아있다
+        }
+    }
+}
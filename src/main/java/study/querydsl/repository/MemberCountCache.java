@@ -0,0 +1,92 @@
+package study.querydsl.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.support.CacheStats;
+import study.querydsl.repository.support.TableWriteTracker;
+import study.querydsl.repository.support.VersionedCache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/*
+    검색 조건별 전체 건수 캐시
+    같은 조건으로 페이지만 넘기는 경우 카운트 쿼리를 다시 실행하지 않는다.
+    member / team 테이블에 쓰기(persist, 변경 감지, 벌크 update/delete)가 있으면 TableWriteTracker 버전이 바뀌어 무효화된다.
+    현재 트랜잭션에 커밋 전 member / team 쓰기가 있으면 캐시를 읽지도 쓰지도 않는다.
+ */
+@Component
+public class MemberCountCache {
+    private static final String[] TABLES = {"member", "team"};
+
+    private final TableWriteTracker tableWriteTracker;
+    private final VersionedCache<MemberSearchCondition, Long> cache;
+
+    public MemberCountCache(TableWriteTracker tableWriteTracker,
+                            @Value("${querydsl.paging.count-cache.max-size:1000}") int maxSize,
+                            @Value("${querydsl.paging.count-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.tableWriteTracker = tableWriteTracker;
+        this.cache = new VersionedCache<>(maxSize, TimeUnit.SECONDS.toMillis(ttlSeconds));
+    }
+
+    // 컨텐츠 쿼리 이후에 호출되도록 supplier 안에서 조회 (컨텐츠 쿼리의 auto flush 로 버전이 먼저 반영된다)
+    public LongSupplier total(MemberSearchCondition condition, LongSupplier countQuery) {
+        MemberSearchCondition key = condition.normalized();
+        return () -> {
+            if (hasUncommittedWrites()) { // 자기 트랜잭션의 쓰기가 보여야 하므로 캐시를 거치지 않는다
+                return countQuery.getAsLong();
+            }
+            long version = currentVersion();
+            Long cached = cache.get(key, version);
+            if (cached != null) {
+                return cached;
+            }
+            long total = countQuery.getAsLong();
+            putIfCommitted(key, version, total);
+            return total;
+        };
+    }
+
+    public Long cached(MemberSearchCondition condition) {
+        return hasUncommittedWrites() ? null : cache.get(condition.normalized(), currentVersion());
+    }
+
+    // 이미 실행을 시작한 카운트(PARALLEL_COUNT)의 결과를 캐시에 넣는다 (버전은 실행 전 시점)
+    public LongSupplier caching(MemberSearchCondition condition, LongSupplier countQuery) {
+        MemberSearchCondition key = condition.normalized();
+        long version = currentVersion();
+        return () -> {
+            long total = countQuery.getAsLong();
+            putIfCommitted(key, version, total);
+            return total;
+        };
+    }
+
+    /*
+        flush 는 됐지만 커밋 전인 쓰기가 있으면 넣지 않는다
+        flush 로 버전이 먼저 올라가므로, 넣으면 커밋(또는 롤백) 전까지 다른 트랜잭션이 이 건수를 받는다
+        (supplier 는 호출한 스레드에서 실행되므로 호출한 쪽 트랜잭션 기준)
+     */
+    private void putIfCommitted(MemberSearchCondition key, long version, long total) {
+        if (!hasUncommittedWrites()) {
+            cache.put(key, version, total);
+        }
+    }
+
+    private boolean hasUncommittedWrites() {
+        return tableWriteTracker.hasUncommittedWrites(TABLES);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private long currentVersion() {
+        return tableWriteTracker.version(TABLES);
+    }
+}
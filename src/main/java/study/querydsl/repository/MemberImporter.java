@@ -0,0 +1,328 @@
+package study.querydsl.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberImportFailure;
+import study.querydsl.dto.MemberImportProgress;
+import study.querydsl.dto.MemberImportResult;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/*
+    member 대량 import (CSV / NDJSON 스트림)
+    - 한 줄씩 읽어서 chunkSize 건마다 트랜잭션 하나로 저장 (chunk 마다 커밋 -> 진행 상황 전달)
+      chunk 안에서는 batchSize 건마다 flush / clear (jdbc batch)
+    - 팀 이름 -> id : 이번 import 에서 본 이름은 맵에, 처음 보는 이름은 TeamNameDictionary, 그래도 없으면 팀을 만든다
+      member 는 팀 프록시(getReference)로 연결하므로 팀 select 도, Team.members 초기화도 없다
+    - 잘못된 줄은 건너뛰고 failures 로 알린다. chunk 저장이 실패하면 그 chunk 만 한 줄씩 다시 저장해서 실패한 줄을 골라낸다
+    메모리에는 chunk 하나와 팀 이름 맵만 남는다 (실패 목록도 쌓지 않고 바로 넘긴다, 한 줄 길이도 maxLineLength 로 제한)
+
+    CSV    : username,age,teamName (첫 줄이 username 으로 시작하면 헤더로 보고 건너뛴다, teamName 은 비워도 된다)
+    NDJSON : {"username":"member1","age":10,"teamName":"teamA"}
+ */
+@Component
+public class MemberImporter {
+    private static final int MAX_TEAM_CACHE = 10_000;
+    private static final int MAX_REASON_LENGTH = 200;
+    private static final List<String> CSV_HEADER = List.of("username", "age", "teamname"); // teamName 은 생략 가능
+
+    public enum Format { CSV, NDJSON }
+
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+    private final TeamNameDictionary teamNameDictionary;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int batchSize;
+    private final int maxLineLength;
+
+    public MemberImporter(EntityManager em, PlatformTransactionManager transactionManager,
+                          TeamNameDictionary teamNameDictionary, ObjectMapper objectMapper,
+                          @Value("${querydsl.import.chunk-size:1000}") int chunkSize,
+                          @Value("${querydsl.import.batch-size:100}") int batchSize,
+                          @Value("${querydsl.import.max-line-length:8192}") int maxLineLength) {
+        this.em = em;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.teamNameDictionary = teamNameDictionary;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.maxLineLength = maxLineLength;
+    }
+
+    public MemberImportResult importMembers(InputStream input, Format format,
+                                            Consumer<MemberImportProgress> progress,
+                                            Consumer<MemberImportFailure> failures) throws IOException {
+        return new Run(format, progress, failures).execute(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+    }
+
+    private record Row(long line, String username, int age, String teamName) {
+    }
+
+    // import 한번의 상태 (스레드 하나에서만 사용)
+    private class Run {
+        private final Format format;
+        private final Consumer<MemberImportProgress> progress;
+        private final Consumer<MemberImportFailure> failures;
+        private final Map<String, Long> teamIds = new HashMap<>();
+        private final StringBuilder lineBuffer = new StringBuilder();
+        private final List<Row> chunk = new ArrayList<>(chunkSize);
+        private boolean lineTooLong;
+        private long lines;
+        private long imported;
+        private long failed;
+        private int chunks;
+
+        Run(Format format, Consumer<MemberImportProgress> progress, Consumer<MemberImportFailure> failures) {
+            this.format = format;
+            this.progress = progress;
+            this.failures = failures;
+        }
+
+        MemberImportResult execute(Reader reader) throws IOException {
+            long start = System.nanoTime();
+            String line;
+            while ((line = readLine(reader)) != null) {
+                lines++;
+                if (lineTooLong) {
+                    fail(lines, "line longer than " + maxLineLength + " characters");
+                    continue;
+                }
+                if (!StringUtils.hasText(line) || (lines == 1 && isCsvHeader(line))) {
+                    continue;
+                }
+                try {
+                    chunk.add(parse(line, lines));
+                } catch (IllegalArgumentException e) {
+                    fail(lines, e.getMessage());
+                    continue;
+                }
+                if (chunk.size() == chunkSize) {
+                    writeChunk();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk();
+            }
+            return new MemberImportResult(lines, imported, failed, chunks, (System.nanoTime() - start) / 1_000_000);
+        }
+
+        private void writeChunk() {
+            int chunkImported = 0;
+            int chunkFailed = 0;
+            try {
+                persist(chunk);
+                chunkImported = chunk.size();
+            } catch (RuntimeException e) { // chunk 전체가 롤백됨 -> 한 줄씩 다시
+                for (Row row : chunk) {
+                    try {
+                        persist(List.of(row));
+                        chunkImported++;
+                    } catch (RuntimeException rowError) {
+                        fail(row.line(), reason(rowError));
+                        chunkFailed++;
+                    }
+                }
+            }
+            chunks++;
+            imported += chunkImported;
+            progress.accept(new MemberImportProgress(chunks, lines, chunkImported, chunkFailed, imported, failed));
+            chunk.clear();
+        }
+
+        // 트랜잭션 하나 : 커밋에 성공했을 때만 새로 만든 팀을 맵에 넣는다
+        private void persist(List<Row> rows) {
+            Map<String, Long> createdTeams = new HashMap<>();
+            tx.executeWithoutResult(status -> {
+                for (int i = 0; i < rows.size(); i++) {
+                    Row row = rows.get(i);
+                    Team team = row.teamName() == null ? null : em.getReference(Team.class, teamId(row.teamName(), createdTeams));
+                    em.persist(new Member(row.username(), row.age(), team));
+                    if ((i + 1) % batchSize == 0) {
+                        em.flush();
+                        em.clear();
+                    }
+                }
+            });
+            if (teamIds.size() + createdTeams.size() > MAX_TEAM_CACHE) {
+                teamIds.clear();
+            }
+            teamIds.putAll(createdTeams);
+        }
+
+        private Long teamId(String teamName, Map<String, Long> createdTeams) {
+            Long teamId = teamIds.get(teamName);
+            if (teamId == null) {
+                teamId = createdTeams.get(teamName);
+            }
+            if (teamId == null) {
+                List<Long> ids = teamNameDictionary.idsOf(teamName); // 같은 이름 팀이 여러개면 첫번째
+                if (ids != null && !ids.isEmpty()) {
+                    teamId = ids.get(0);
+                    teamIds.put(teamName, teamId);
+                } else {
+                    Team team = new Team(teamName);
+                    em.persist(team);
+                    teamId = team.getId();
+                    createdTeams.put(teamName, teamId);
+                }
+            }
+            return teamId;
+        }
+
+        private void fail(long line, String reason) {
+            failed++;
+            failures.accept(new MemberImportFailure(line, reason));
+        }
+
+        private Row parse(String line, long lineNumber) {
+            return format == Format.CSV ? parseCsv(line, lineNumber) : parseJson(line, lineNumber);
+        }
+
+        // 첫 줄이 정확히 username,age[,teamName] 일 때만 (usernameX,20,teamA 같은 데이터 행은 그대로 읽는다)
+        private boolean isCsvHeader(String line) {
+            if (format != Format.CSV) {
+                return false;
+            }
+            List<String> names;
+            try {
+                names = splitCsv(line).stream()
+                        .map(field -> field.trim().toLowerCase(Locale.ROOT))
+                        .toList();
+            } catch (IllegalArgumentException e) { // 헤더가 아니므로 데이터 행으로 읽고 실패 처리
+                return false;
+            }
+            return names.equals(CSV_HEADER) || names.equals(CSV_HEADER.subList(0, 2));
+        }
+
+        // maxLineLength 를 넘는 부분은 버리고 lineTooLong 표시 (끝이면 null)
+        private String readLine(Reader reader) throws IOException {
+            lineBuffer.setLength(0);
+            lineTooLong = false;
+            int c;
+            boolean read = false;
+            while ((c = reader.read()) != -1) {
+                read = true;
+                if (c == '\n') {
+                    break;
+                }
+                if (lineBuffer.length() < maxLineLength) {
+                    lineBuffer.append((char) c);
+                } else {
+                    lineTooLong = true;
+                }
+            }
+            if (!read) {
+                return null;
+            }
+            int length = lineBuffer.length();
+            if (length > 0 && lineBuffer.charAt(length - 1) == '\r') {
+                lineBuffer.setLength(length - 1);
+            }
+            return lineBuffer.toString();
+        }
+    }
+
+    private static Row parseCsv(String line, long lineNumber) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() < 2 || fields.size() > 3) {
+            throw new IllegalArgumentException("expected username,age[,teamName] but got " + fields.size() + " fields");
+        }
+        return row(lineNumber, fields.get(0), fields.get(1), fields.size() == 3 ? fields.get(2) : null);
+    }
+
+    private Row parseJson(String line, long lineNumber) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("invalid json: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("expected a json object");
+        }
+        return row(lineNumber, text(node, "username"), text(node, "age"), text(node, "teamName"));
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static Row row(long lineNumber, String username, String age, String teamName) {
+        if (!StringUtils.hasText(username)) {
+            throw new IllegalArgumentException("username is required");
+        }
+        int parsedAge = 0;
+        if (StringUtils.hasText(age)) {
+            try {
+                parsedAge = Integer.parseInt(age.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("age is not a number: " + age);
+            }
+            if (parsedAge < 0) {
+                throw new IllegalArgumentException("age must not be negative: " + age);
+            }
+        }
+        return new Row(lineNumber, username.trim(), parsedAge, StringUtils.hasText(teamName) ? teamName.trim() : null);
+    }
+
+    // 따옴표("...", 안의 "" 는 ") 를 지원하는 한 줄 CSV 분리
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quote");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String reason(RuntimeException e) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+        String message = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        return message.length() > MAX_REASON_LENGTH ? message.substring(0, MAX_REASON_LENGTH) : message;
+    }
+}
@@ -4,10 +4,22 @@ import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUtil;
 import jakarta.persistence.EntityManager;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.expression.spel.ast.Projection;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
@@ -15,23 +27,42 @@ import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
+import study.querydsl.repository.support.ReadOnlyQueries;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
 
+// 조회는 읽기 전용 트랜잭션 + ReadOnlyQueries 힌트, 쓰기(save)만 읽기/쓰기 트랜잭션
 @Repository
+@Transactional(readOnly = true)
 public class MemberJpaRepository {
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
-
-    public MemberJpaRepository(EntityManager em) {
+    private final MemberSearchQueries searchQueries;
+    private final TeamNameDictionary teamNameDictionary;
+    private final UsernameFilter usernameFilter;
+    private final ReadOnlyQueries readOnlyQueries;
+    private final int exportFetchSize;
+
+    public MemberJpaRepository(EntityManager em, MemberSearchQueries searchQueries, TeamNameDictionary teamNameDictionary,
+                               UsernameFilter usernameFilter, ReadOnlyQueries readOnlyQueries,
+                               @Value("${querydsl.export.fetch-size:500}") int exportFetchSize) {
         this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.searchQueries = searchQueries;
+        this.teamNameDictionary = teamNameDictionary;
+        this.usernameFilter = usernameFilter;
+        this.readOnlyQueries = readOnlyQueries;
+        this.exportFetchSize = exportFetchSize;
     }
+    @Transactional
     public void save(Member member) {
         em.persist(member);
     }
@@ -40,57 +71,104 @@ public class MemberJpaRepository {
         return Optional.ofNullable(findMember);
     }
     public List<Member> findAll() {
-        return em.createQuery("select m from Member m", Member.class)
+        return readOnlyQueries.apply(em.createQuery("select m from Member m", Member.class))
                 .getResultList();
     }
     public List<Member> findAll_Querydsl() {
-        return queryFactory
-                .selectFrom(member).fetch();
+        return readOnlyQueries.apply(queryFactory
+                .selectFrom(member)).fetch();
+    }
+
+    /*
+        findAll 의 대용량 버전: StatelessSession 으로 읽어서 chunkSize 개씩 consumer 에 넘긴다
+        - 영속성 컨텍스트, 스냅샷(dirty checking), 1차 캐시가 없으므로 메모리는 chunk 하나 크기로 일정
+        - 받은 엔티티는 준영속 상태 -> 수정해도 반영되지 않는다 (읽기 전용)
+        - StatelessSession 은 지연 로딩이 안되므로 team 은 fetch join 으로 같이 읽는다
+        - 현재 트랜잭션의 커넥션을 그대로 쓰므로 같은 트랜잭션에서 flush 된 데이터도 보인다
+     */
+    @Transactional(readOnly = true)
+    public void findAllInChunks(int chunkSize, Consumer<List<Member>> chunkConsumer) {
+        findAllInChunks(new MemberSearchCondition(), chunkSize, chunkConsumer);
+    }
+
+    @Transactional(readOnly = true)
+    public void findAllInChunks(MemberSearchCondition condition, int chunkSize, Consumer<List<Member>> chunkConsumer) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        JPAQuery<Member> query = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .where(usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .orderBy(member.id.asc());
+
+        // 같은 querydsl 조건을 JPQL 로 직렬화해서 StatelessSession 에서 실행
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em));
+        serializer.serialize(query.getMetadata(), false, null);
+
+        em.flush();
+        Session session = em.unwrap(Session.class);
+        SessionFactory sessionFactory = session.getSessionFactory();
+        session.doWork(connection -> {
+            try (StatelessSession statelessSession = sessionFactory.openStatelessSession(connection)) {
+                org.hibernate.query.Query<Member> hql = statelessSession.createQuery(serializer.toString(), Member.class);
+                JPAUtil.setConstants(hql, serializer.getConstants(), query.getMetadata().getParams());
+                hql.setFetchSize(chunkSize);
+                hql.setReadOnly(true);
+
+                try (ScrollableResults<Member> results = hql.scroll(ScrollMode.FORWARD_ONLY)) {
+                    List<Member> chunk = new ArrayList<>(chunkSize);
+                    while (results.next()) {
+                        chunk.add(results.get());
+                        if (chunk.size() == chunkSize) {
+                            chunkConsumer.accept(chunk);
+                            chunk = new ArrayList<>(chunkSize); // consumer 가 이전 chunk 를 들고 있어도 되도록 새로 만든다
+                        }
+                    }
+                    if (!chunk.isEmpty()) {
+                        chunkConsumer.accept(chunk);
+                    }
+                }
+            }
+        });
     }
 
     public List<Member> findByUsername(String username) {
-        return em.createQuery("select m from Member m where m.username = :username", Member.class)
+        return readOnlyQueries.apply(em.createQuery("select m from Member m where m.username = :username", Member.class))
                 .setParameter("username", username)
                 .getResultList();
     }
     public List<Member> findByUsername_Querydsl(String username) {
-        return queryFactory
+        return usernameFilter.lookup(username, () -> readOnlyQueries.apply(queryFactory
                 .selectFrom(member)
-                .where(member.username.eq(username))
-                .fetch();
+                .where(member.username.eq(username)))
+                .fetch());
     }
 
+    /*
+        동적 boolean type (BooleanBuilder) / 동적 where type (where 다중 파라미터) 두 방식 모두
+        결과는 같은 where 절 모양이므로 MemberSearchQueries 의 미리 직렬화된 JPQL 로 실행한다.
+     */
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
-
-        BooleanBuilder booleanBuilder = new BooleanBuilder();
-        if (hasText(condition.getUsername())) {
-            booleanBuilder.and(member.username.eq(condition.getUsername()));
-        }
-        if (hasText(condition.getTeamName())) {
-            booleanBuilder.and(team.name.eq(condition.getTeamName()));
-        }
-        if (condition.getAgeGoe() != null) {
-            booleanBuilder.and(member.age.goe(condition.getAgeGoe()));
-        }
-        if (condition.getAgeLoe() != null) {
-            booleanBuilder.and(member.age.loe(condition.getAgeLoe()));
-        }
-
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(booleanBuilder)
-                .fetch();
+        return searchQueries.fetch(condition);
     }
 
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
+        return searchQueries.fetch(condition);
+    }
+
+    /*
+        전체 결과를 메모리에 올리지 않고 한 행씩 consumer 에 넘긴다 (export 용)
+        forward-only 커서(getResultStream -> scroll) + JDBC fetch size 로 DB 에서도 조금씩 읽어온다.
+        consumer 에서 예외가 나면(클라이언트 연결 끊김 등) 커서를 닫고 바로 중단한다.
+     */
+    @Transactional(readOnly = true)
+    public void streamSearch(MemberSearchCondition condition, Consumer<MemberTeamDto> consumer) {
+        try (Stream<MemberTeamDto> rows = queryFactory
                 .select(new QMemberTeamDto(
                         member.id,
                         member.username,
@@ -103,11 +181,15 @@ public class MemberJpaRepository {
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
-                        )
-                .fetch();
+                )
+                .orderBy(member.id.asc())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream()) {
+            rows.forEach(consumer);
+        }
     }
 
-
     private BooleanExpression ageBetween(int ageLoe, int ageGoe){
         return ageLoe(ageLoe).and(ageGoe(ageGoe));
     }
@@ -115,8 +197,13 @@ public class MemberJpaRepository {
         return StringUtils.hasText(username) ? member.username.eq(username) : null;
     }
 
+    // 사전에 있는 팀 이름이면 member.team.id 조건 (TeamNameDictionary)
     private BooleanExpression teamNameEq(String teamName) {
-        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+        if (!StringUtils.hasText(teamName)) {
+            return null;
+        }
+        List<Long> teamIds = teamNameDictionary.idsForSearch(teamName);
+        return teamIds != null ? member.team.id.in(teamIds) : team.name.eq(teamName);
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
@@ -2,15 +2,26 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydsl.dto.CursorSlice;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.PagingStrategy;
 
 import java.util.List;
 
 public interface MemberRepositoryCustom {
+    List<Member> findByUsername(String username); // UsernameFilter 로 없는 username 은 쿼리 생략
     List<MemberTeamDto> search(MemberSearchCondition condition);
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
+    Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable, Long knownTotal);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+    Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable, PagingStrategy strategy);
+    Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable, PagingStrategy strategy, Long knownTotal); // strategy 를 지정하면 검색 캐시를 거치지 않는다
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+    CursorSlice<MemberTeamDto> searchByCursor(MemberSearchCondition condition, String cursor, Pageable pageable);
+    long moveToTeam(MemberSearchCondition condition, Long teamId); // 조건에 맞는 member 를 update 한번으로 팀 이동
 
 
 }
@@ -1,22 +1,46 @@
 package study.querydsl.repository;
 
-import com.querydsl.core.QueryResults;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
+import study.querydsl.dto.CursorSlice;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.CountQueries;
+import study.querydsl.repository.support.InvalidSearchRequestException;
+import study.querydsl.repository.support.KeysetCursor;
+import study.querydsl.repository.support.PagedQueries;
+import study.querydsl.repository.support.PagingStrategy;
+import study.querydsl.repository.support.ParallelCountExecutor;
+import study.querydsl.repository.support.ReadOnlyQueries;
 
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
 
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
@@ -27,17 +51,107 @@ import static study.querydsl.entity.QTeam.team;
     MemberRepository 의 구현체를 만들것이기때문에
 
     class "MemberRepository" + "Impl" 이렇게 만들어줘야함 -> class MemberRepositoryImpl
+
+    모두 조회 메소드 -> 읽기 전용 트랜잭션 + ReadOnlyQueries 힌트 (쓰기인 moveToTeam 만 @Transactional)
  */
+@Transactional(readOnly = true)
 public class MemberRepositoryImpl implements MemberRepositoryCustom{
+    private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final ParallelCountExecutor parallelCountExecutor;
+    private final MemberCountCache countCache;
+    private final MemberSearchQueries searchQueries;
+    private final TeamNameDictionary teamNameDictionary;
+    private final MemberSearchCache searchCache;
+    private final UsernameFilter usernameFilter;
+    private final ReadOnlyQueries readOnlyQueries;
+    private final long deferredJoinThreshold; // 이 offset 부터는 id 먼저 페이징 후 조인 (deferred join)
 
-    public MemberRepositoryImpl(EntityManager em ){
+    public MemberRepositoryImpl(EntityManager em, ParallelCountExecutor parallelCountExecutor, MemberCountCache countCache,
+                                MemberSearchQueries searchQueries, TeamNameDictionary teamNameDictionary, MemberSearchCache searchCache,
+                                UsernameFilter usernameFilter, ReadOnlyQueries readOnlyQueries,
+                                @Value("${querydsl.paging.deferred-join-threshold:1000}") long deferredJoinThreshold){
+        this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.parallelCountExecutor = parallelCountExecutor;
+        this.countCache = countCache;
+        this.searchQueries = searchQueries;
+        this.teamNameDictionary = teamNameDictionary;
+        this.searchCache = searchCache;
+        this.usernameFilter = usernameFilter;
+        this.readOnlyQueries = readOnlyQueries;
+        this.deferredJoinThreshold = deferredJoinThreshold;
+    }
+
+    // 메소드 이름 쿼리(findByUsername) 대신 이 구현이 쓰인다 : 없는 username 이면 쿼리 없이 빈 목록
+    @Override
+    public List<Member> findByUsername(String username) {
+        return usernameFilter.lookup(username, () -> readOnlyQueries.apply(queryFactory
+                .selectFrom(member)
+                .where(member.username.eq(username)))
+                .fetch());
     }
 
+    // where 절 모양별로 미리 직렬화해둔 JPQL 에 값만 바인딩 (MemberSearchQueries)
     @Override
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
+        return searchCache.get("search", condition, null, () -> searchQueries.fetch(condition));
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        return searchPageSimple(condition, pageable, null);
+    }
+
+    // knownTotal : 클라이언트가 보낸 토큰으로 확인된 전체 건수 (있으면 fetchResults 의 카운트 쿼리를 생략)
+    @Override
+    public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable, Long knownTotal) {
+        return searchCache.get("searchPageSimple", condition, pageable, () -> fetchPageSimple(condition, pageable, knownTotal));
+    }
+
+    private Page<MemberTeamDto> fetchPageSimple(MemberSearchCondition condition, Pageable pageable, Long knownTotal) {
+        List<MemberTeamDto> content = searchQueries.fetch(condition, List.of(),
+                pageable.getOffset(), // 몇번부터 시작할거야
+                pageable.getPageSize());
+
+        long total = knownTotal != null ? knownTotal : searchQueries.count(condition);
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        return searchPageComplex(condition, pageable, null, null);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable, PagingStrategy strategy) {
+        return searchPageComplex(condition, pageable, strategy, null);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable, PagingStrategy strategy, Long knownTotal) {
+        // 전략을 지정한 호출(/v3?paging=..., 전략 비교)은 그 전략이 실제로 실행되어야 하므로 캐시를 거치지 않는다
+        if (strategy != null) {
+            return fetchPageComplex(condition, pageable, strategy, knownTotal);
+        }
+        return searchCache.get("searchPageComplex", condition, pageable,
+                () -> fetchPageComplex(condition, pageable, PagingStrategy.TWO_QUERIES, knownTotal));
+    }
+
+    private Page<MemberTeamDto> fetchPageComplex(MemberSearchCondition condition, Pageable pageable, PagingStrategy strategy, Long knownTotal) {
+        if (knownTotal != null) { // 전체 건수를 이미 알고 있으면 window count / 병렬 카운트도 필요 없다
+            strategy = PagingStrategy.TWO_QUERIES;
+        }
+        if (strategy == PagingStrategy.TWO_QUERIES && pageable.getOffset() < deferredJoinThreshold) {
+            // 가장 흔한 경로 : 쿼리를 새로 만들지 않고 미리 직렬화해둔 JPQL 재사용
+            LongSupplier total = knownTotal != null ? () -> knownTotal : countCache.total(condition, () -> searchQueries.count(condition));
+            List<MemberTeamDto> content = searchQueries.fetch(condition, List.of(pageOrders(pageable.getSort())),
+                    pageable.getOffset(), pageable.getPageSize());
+            return PageableExecutionUtils.getPage(content, pageable, total);
+        }
+        // window count / 병렬 카운트 / deferred join 은 쿼리 자체를 바꾸므로 querydsl 쿼리를 직접 만든다
+        JPAQuery<MemberTeamDto> contentQuery = queryFactory
                 .select(new QMemberTeamDto(
                         member.id,
                         member.username,
@@ -50,13 +164,104 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
+                );
+
+        // 카운트 쿼리 최적화 (카운트 쿼리 분리) : team 조건이 없으면 left join 까지 빠진 count(member.id)
+        readOnlyQueries.apply(contentQuery);
+        JPAQuery<Long> countQuery = readOnlyQueries.apply(CountQueries.countQuery(contentQuery, em));
+        LongSupplier total = knownTotal != null ? () -> knownTotal : countSupplier(condition, strategy, countQuery);
+
+        if (pageable.getOffset() >= deferredJoinThreshold) {
+            return fetchPageDeferred(condition, pageable, strategy, total);
+        }
+        contentQuery
+                .orderBy(pageOrders(pageable.getSort()))
+                .offset(pageable.getOffset()) // 몇번부터 시작할거야
+                .limit(pageable.getPageSize());
+        return PagedQueries.fetchPage(strategy, contentQuery, pageable, total);
+        //return new PageImpl<>(content, pageable, total);
+    }
+
+    // 같은 조건의 전체 건수는 MemberCountCache 에서 재사용 (member / team 쓰기가 있으면 다시 카운트)
+    private LongSupplier countSupplier(MemberSearchCondition condition, PagingStrategy strategy, JPAQuery<Long> countQuery) {
+        if (strategy != PagingStrategy.PARALLEL_COUNT) {
+            return countCache.total(condition, countQuery::fetchOne);
+        }
+        Long cached = countCache.cached(condition);
+        if (cached != null) {
+            return () -> cached;
+        }
+        // 컨텐츠 쿼리와 동시에 별도 커넥션에서 실행
+        return countCache.caching(condition, parallelCountExecutor.submit(countQuery));
+    }
+
+    /*
+        deferred join (id 먼저 페이징)
+        1) 필터 + 정렬 + offset/limit 은 member.id 한 컬럼만 읽는 좁은 쿼리로 처리하고
+        2) 넓은 projection + team 조인은 실제로 돌려줄 id 들에 대해서만 수행한다
+        -> offset 이 커져도 버려지는 행은 id 만 스캔하게 된다
+     */
+    private Page<MemberTeamDto> fetchPageDeferred(MemberSearchCondition condition, Pageable pageable,
+                                                  PagingStrategy strategy, LongSupplier total) {
+        BooleanExpression teamNameEq = teamNameEq(condition.getTeamName());
+        JPAQuery<Long> idQuery = queryFactory
+                .select(member.id)
+                .from(member);
+        if (CountQueries.references(teamNameEq, team)) { // team.name 조건일때만 조인 (team.id 조건이면 FK 로 충분)
+            idQuery.leftJoin(member.team, team);
+        }
+        idQuery
+                .where(usernameEq(condition.getUsername()),
+                        teamNameEq,
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
                 )
-                .fetch();
+                .orderBy(pageOrders(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize());
+        readOnlyQueries.apply(idQuery);
+        Page<Long> idPage = PagedQueries.fetchPage(strategy, idQuery, pageable, total);
+        List<Long> ids = idPage.getContent();
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, idPage.getTotalElements());
+        }
+
+        Map<Long, Integer> position = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            position.put(ids.get(i), i);
+        }
+        List<MemberTeamDto> content = readOnlyQueries.apply(queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.id.in(ids)))
+                .fetch()
+                .stream()
+                .sorted(Comparator.comparingInt((MemberTeamDto dto) -> position.get(dto.getMemberId()))) // 1단계의 정렬 순서 유지
+                .toList();
+        return new PageImpl<>(content, pageable, idPage.getTotalElements());
     }
 
+    // offset 페이징 정렬 : 요청 정렬 + id (deferred join 전/후 페이지 경계가 흔들리지 않도록 순서 고정)
+    private OrderSpecifier<?>[] pageOrders(Sort sort) {
+        List<OrderSpecifier<?>> orders = sort.stream()
+                .filter(order -> !"id".equals(order.getProperty()))
+                .<OrderSpecifier<?>>map(order -> new OrderSpecifier<>(order.isAscending() ? Order.ASC : Order.DESC, sortPath(order.getProperty())))
+                .collect(Collectors.toList());
+        Sort.Order idOrder = sort.getOrderFor("id");
+        orders.add(idOrder != null && idOrder.isDescending() ? member.id.desc() : member.id.asc());
+        return orders.toArray(OrderSpecifier[]::new);
+    }
+
+    // 카운트 쿼리 없이 다음 페이지 존재 여부만 (무한 스크롤)
     @Override
-    public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        QueryResults<MemberTeamDto> result = queryFactory
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        JPAQuery<MemberTeamDto> contentQuery = queryFactory
                 .select(new QMemberTeamDto(
                         member.id,
                         member.username,
@@ -70,19 +275,30 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
-                .offset(pageable.getOffset()) // 몇번부터 시작할거야
-                .limit(pageable.getPageSize())
-                .fetchResults();
-
-        List<MemberTeamDto> content = result.getResults();
-        long total = result.getTotal();
-
-        return new PageImpl<>(content, pageable, total);
+                .orderBy(pageOrders(pageable.getSort()));
+        return PagedQueries.fetchSlice(readOnlyQueries.apply(contentQuery), pageable);
     }
 
+    // 키셋(seek) 페이징 : offset 없이 마지막으로 본 행 이후부터 읽기 때문에 몇번째 페이지든 비용이 같다
     @Override
-    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> content = queryFactory
+    public CursorSlice<MemberTeamDto> searchByCursor(MemberSearchCondition condition, String cursor, Pageable pageable) {
+        Sort.Order sortOrder = pageable.getSort().stream()
+                .findFirst()
+                .orElse(Sort.Order.asc("id"));
+        String property = sortOrder.getProperty();
+        Sort.Direction direction = sortOrder.getDirection();
+        sortPath(property); // 지원하지 않는 정렬 컬럼이면 여기서 예외
+
+        KeysetCursor lastSeen = null;
+        if (StringUtils.hasText(cursor)) {
+            lastSeen = KeysetCursor.decode(cursor);
+            if (!lastSeen.matches(property, direction)) {
+                throw new InvalidSearchRequestException("Cursor does not match requested sort: " + property + "," + direction);
+            }
+        }
+
+        int pageSize = pageable.getPageSize();
+        List<MemberTeamDto> content = readOnlyQueries.apply(queryFactory
                 .select(new QMemberTeamDto(
                         member.id,
                         member.username,
@@ -94,33 +310,165 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
                 .where(usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        ageLoe(condition.getAgeLoe()),
+                        seekAfter(lastSeen)
                 )
-                .offset(pageable.getOffset()) // 몇번부터 시작할거야
-                .limit(pageable.getPageSize())
-                .fetch();// 위에와 차이점
+                .orderBy(keysetOrders(property, direction))
+                .limit(pageSize + 1)) // 한개 더 읽어서 다음 페이지 존재 여부 판단
+                .fetch();
 
-        // 카운트 쿼리 최적화 (카운트 쿼리 분리)
-        JPAQuery<Member> countQuery = queryFactory
-                .select(member)
-                .from(member)
-                .leftJoin(member.team, team)
+        boolean hasNext = content.size() > pageSize;
+        if (hasNext) {
+            content = content.subList(0, pageSize);
+        }
+        String nextCursor = hasNext ? nextCursor(content.get(content.size() - 1), property, direction) : null;
+        return new CursorSlice<>(content, pageSize, hasNext, nextCursor);
+    }
+
+    /*
+        팀 이동 : member 를 로딩해서 changeTeam 하는 대신 update member set team_id = ? where ... 한번
+        - 이미 대상 팀인 member 는 제외 (쓸데없는 행 잠금 / 쓰기 없음)
+        - 실행 전 flush (대기 중인 변경 먼저), 실행 후 clear : 영속성 컨텍스트의 Member.team, Team.members 가 DB 와 달라지므로
+          (@Modifying(flushAutomatically, clearAutomatically) 와 같은 동작, 호출 전에 읽은 엔티티는 준영속이 된다)
+        - 2차 캐시 : Team.members 컬렉션, Member 엔티티 데이터를 지금 한번, 트랜잭션 종료 후 한번 더 비운다
+          (커밋 전에 다른 트랜잭션이 이전 값으로 다시 채우는 경우 방지, 캐시 설정이 없으면 아무것도 하지 않는다)
+        검색 / count 캐시는 TableWriteTracker 가 update SQL 을 보고 무효화하고, username 은 바뀌지 않으므로 UsernameFilter 와 무관
+     */
+    @Override
+    @Transactional
+    public long moveToTeam(MemberSearchCondition condition, Long teamId) {
+        Team target = teamId == null ? null : em.find(Team.class, teamId); // 2차 캐시 대상 (보통 select 없음)
+        if (target == null) {
+            throw new IllegalArgumentException("Team not found: " + teamId);
+        }
+        em.flush();
+        long moved = queryFactory
+                .update(member)
+                .set(member.team, target)
                 .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
+                        teamNameIn(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+                        ageLoe(condition.getAgeLoe()),
+                        member.team.isNull().or(member.team.id.ne(teamId)))
+                .execute();
+        em.clear();
+        evictTeamMembers();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictTeamMembers();
+                }
+            });
+        }
+        return moved;
+    }
 
-        return PageableExecutionUtils.getPage(content, pageable, () -> countQuery.fetchCount()); // () -> countQuery.fetchCount() -> countQuery::fetchCount
-        //return new PageImpl<>(content, pageable, total);
+    private void evictTeamMembers() {
+        Cache cache = em.getEntityManagerFactory().getCache().unwrap(Cache.class);
+        cache.evictCollectionData(Team.class.getName() + ".members");
+        cache.evictEntityData(Member.class);
+    }
+
+    private ComparableExpressionBase<?> sortPath(String property) {
+        return switch (property) {
+            case "id" -> member.id;
+            case "username" -> member.username;
+            case "age" -> member.age;
+            default -> throw new InvalidSearchRequestException("Unsupported sort property: " + property);
+        };
+    }
+
+    // 정렬 컬럼이 같은 행이 여러개일 수 있으므로 id 를 같은 방향으로 한번 더 정렬해 순서를 고정한다
+    // username 은 null 일 수 있으므로 null 을 가장 작은 값으로 고정 (DB 기본 null 정렬에 기대지 않는다, seekAfter 와 맞춘다)
+    private OrderSpecifier<?>[] keysetOrders(String property, Sort.Direction direction) {
+        Order order = direction.isAscending() ? Order.ASC : Order.DESC;
+        if ("id".equals(property)) {
+            return new OrderSpecifier<?>[]{new OrderSpecifier<>(order, member.id)};
+        }
+        OrderSpecifier.NullHandling nulls = direction.isAscending()
+                ? OrderSpecifier.NullHandling.NullsFirst
+                : OrderSpecifier.NullHandling.NullsLast;
+        return new OrderSpecifier<?>[]{
+                new OrderSpecifier<>(order, sortPath(property), nulls),
+                new OrderSpecifier<>(order, member.id)};
+    }
+
+    private BooleanExpression seekAfter(KeysetCursor lastSeen) {
+        if (lastSeen == null) {
+            return null;
+        }
+        boolean asc = lastSeen.getDirection().isAscending();
+        Long lastId = lastSeen.getLastId();
+        BooleanExpression idAfter = asc ? member.id.gt(lastId) : member.id.lt(lastId);
+
+        return switch (lastSeen.getProperty()) {
+            case "username" -> {
+                String value = lastSeen.getLastValue();
+                if (value == null) { // null 구간 안에서는 id 로만, 오름차순이면 null 이 아닌 행이 모두 뒤에 온다
+                    BooleanExpression inNulls = member.username.isNull().and(idAfter);
+                    yield asc ? member.username.isNotNull().or(inNulls) : inNulls;
+                }
+                BooleanExpression after = asc
+                        ? member.username.gt(value)
+                        : member.username.lt(value).or(member.username.isNull()); // 내림차순이면 null 이 마지막
+                yield after.or(member.username.eq(value).and(idAfter));
+            }
+            case "age" -> {
+                int value = ageValue(lastSeen.getLastValue());
+                BooleanExpression after = asc ? member.age.gt(value) : member.age.lt(value);
+                yield after.or(member.age.eq(value).and(idAfter));
+            }
+            default -> idAfter;
+        };
+    }
+
+    // age 는 null 이 될 수 없다 -> 값이 없거나 숫자가 아니면 잘못된 커서
+    private static int ageValue(String lastValue) {
+        try {
+            return Integer.parseInt(lastValue);
+        } catch (NumberFormatException e) { // null 도 여기로
+            throw new InvalidSearchRequestException("Invalid cursor: age=" + lastValue, e);
+        }
+    }
+
+    private String nextCursor(MemberTeamDto last, String property, Sort.Direction direction) {
+        String value = switch (property) {
+            case "username" -> last.getUsername();
+            case "age" -> String.valueOf(last.getAge());
+            default -> null;
+        };
+        return new KeysetCursor(property, direction, last.getMemberId(), value).encode();
     }
 
     private BooleanExpression usernameEq(String username) {
         return StringUtils.hasText(username) ? member.username.eq(username) : null;
     }
 
+    // 사전에 있는 팀 이름이면 조인 없이 member.team.id 조건, 없으면(아직 flush 전인 팀 등) team.name 조건
     private BooleanExpression teamNameEq(String teamName) {
-        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+        if (!StringUtils.hasText(teamName)) {
+            return null;
+        }
+        BooleanExpression teamIdIn = teamIdIn(teamName);
+        return teamIdIn != null ? teamIdIn : team.name.eq(teamName);
+    }
+
+    // update / delete 는 조인할 수 없으므로 사전에 없는 팀 이름은 서브쿼리로
+    private BooleanExpression teamNameIn(String teamName) {
+        if (!StringUtils.hasText(teamName)) {
+            return null;
+        }
+        BooleanExpression teamIdIn = teamIdIn(teamName);
+        return teamIdIn != null ? teamIdIn : member.team.id.in(JPAExpressions
+                .select(team.id)
+                .from(team)
+                .where(team.name.eq(teamName)));
+    }
+
+    private BooleanExpression teamIdIn(String teamName) {
+        List<Long> teamIds = teamNameDictionary.idsForSearch(teamName);
+        return teamIds != null ? member.team.id.in(teamIds) : null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
@@ -0,0 +1,157 @@
+package study.querydsl.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.CacheStats;
+import study.querydsl.repository.support.EntityCommitListener;
+import study.querydsl.repository.support.OffHeapSegments;
+import study.querydsl.repository.support.SingleFlight;
+import study.querydsl.repository.support.TableWriteTracker;
+import study.querydsl.repository.support.VersionedCache;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+    검색 결과 캐시 (search / searchPageSimple / searchPageComplex)
+    키 : 검색 종류 + 정규화된 검색 조건 + pageable (페이지, 크기, 정렬)
+    pageable 이 없는 검색(search) 은 결과 행 수에 제한이 없으므로 캐시에 넣지 않는다 (max-size 는 행이 아니라 항목 수)
+    캐시에 없으면 같은 키 + 같은 테이블 버전으로 동시에 들어온 검색은 한번만 실행하고 결과를 나눠 받는다 (SingleFlight)
+    (캐시를 꺼도 동시 요청 합치기는 동작한다)
+    무효화
+    - Member / Team 의 insert / update / delete 가 커밋되면 전체 비움 (EntityCommitListener)
+    - 벌크 update / delete 는 커밋 이벤트가 없으므로 TableWriteTracker 버전이 바뀐 항목은 미스 처리
+    - 현재 트랜잭션에서 member / team 에 쓰기가 있었으면 캐시를 거치지 않는다 (커밋 전 데이터 공유 방지)
+    querydsl.search-cache.enabled=false 로 끌 수 있다. (실행 중에는 setEnabled)
+    querydsl.search-cache.off-heap=true 면 결과를 MemberTeamDtoCodec 으로 인코딩해서 off-heap 에 저장한다
+    (캐시된 행이 많아도 GC 가 추적할 객체가 늘지 않는다, 대신 hit 마다 해당 페이지를 decode)
+ */
+@Component
+public class MemberSearchCache {
+    private static final String[] TABLES = {"member", "team"};
+
+    private final TableWriteTracker tableWriteTracker;
+    private final VersionedCache<Key, Object> cache;
+    private final SingleFlight<Flight, Object> singleFlight;
+    private final MemberTeamDtoCodec codec; // off-heap 이 아니면 null
+    private volatile boolean enabled;
+    private final AtomicLong bypasses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public MemberSearchCache(TableWriteTracker tableWriteTracker, EntityCommitListener entityCommitListener,
+                             @Value("${querydsl.search-cache.enabled:true}") boolean enabled,
+                             @Value("${querydsl.search-cache.max-size:500}") int maxSize,
+                             @Value("${querydsl.search-cache.ttl-seconds:30}") long ttlSeconds,
+                             @Value("${querydsl.search-cache.coalescing-timeout-millis:10000}") long coalescingTimeoutMillis,
+                             @Value("${querydsl.search-cache.off-heap:false}") boolean offHeap,
+                             @Value("${querydsl.search-cache.off-heap-segment-kb:1024}") int offHeapSegmentKb) {
+        this.tableWriteTracker = tableWriteTracker;
+        this.cache = new VersionedCache<>(maxSize, TimeUnit.SECONDS.toMillis(ttlSeconds));
+        this.singleFlight = new SingleFlight<>(coalescingTimeoutMillis);
+        this.codec = offHeap ? new MemberTeamDtoCodec(new OffHeapSegments(offHeapSegmentKb * 1024)) : null;
+        this.enabled = enabled;
+        entityCommitListener.onCommit(Member.class, this::invalidateAll);
+        entityCommitListener.onCommit(Team.class, this::invalidateAll);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String kind, MemberSearchCondition condition, Pageable pageable, Supplier<T> search) {
+        if (tableWriteTracker.hasUncommittedWrites(TABLES)) { // 자기 트랜잭션의 쓰기가 보여야 하므로 공유하지 않는다
+            bypasses.incrementAndGet();
+            return search.get();
+        }
+        Key key = new Key(kind, condition.normalized(), pageable);
+        long version = tableWriteTracker.version(TABLES); // 검색 "전" 버전
+        boolean cacheable = enabled && pageable != null && pageable.isPaged();
+        if (cacheable) {
+            Object cached = cache.get(key, version);
+            if (cached != null) {
+                return (T) fromCacheValue(cached);
+            }
+        }
+        // 쓰기 이후에 온 요청이 쓰기 이전에 시작한 검색 결과를 받지 않도록 버전도 키에 넣는다
+        // 검색 중 auto flush 로 커밋 전 쓰기가 나갔으면 그 결과는 나눠주지도, 캐시하지도 않는다 (기다리던 요청은 각자 검색)
+        T result = (T) singleFlight.execute(new Flight(key, version), search::get,
+                value -> !tableWriteTracker.hasUncommittedWrites(TABLES));
+        if (cacheable && !tableWriteTracker.hasUncommittedWrites(TABLES)) {
+            cache.put(key, version, toCacheValue(result));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object toCacheValue(Object result) {
+        if (codec == null) {
+            return result;
+        }
+        if (result instanceof Page<?> page) {
+            return new EncodedPage(codec.encode((List<MemberTeamDto>) page.getContent()), page.getPageable(), page.getTotalElements());
+        }
+        return new EncodedList(codec.encode((List<MemberTeamDto>) result));
+    }
+
+    private Object fromCacheValue(Object cached) {
+        if (cached instanceof EncodedPage page) {
+            return new PageImpl<>(codec.decode(page.content()), page.pageable(), page.total());
+        }
+        if (cached instanceof EncodedList list) {
+            return codec.decode(list.content()); // 꺼낸 행만 decode 되는 읽기 전용 List
+        }
+        return cached;
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            invalidateAll();
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long bypasses() {
+        return bypasses.get();
+    }
+
+    public long invalidations() {
+        return invalidations.get();
+    }
+
+    // 다른 요청의 검색 결과를 기다려서 받은 횟수
+    public long coalesced() {
+        return singleFlight.coalesced();
+    }
+
+    private record Key(String kind, MemberSearchCondition condition, Pageable pageable) {
+    }
+
+    private record Flight(Key key, long version) {
+    }
+
+    private record EncodedList(ByteBuffer content) {
+    }
+
+    private record EncodedPage(ByteBuffer content, Pageable pageable, long total) {
+    }
+}
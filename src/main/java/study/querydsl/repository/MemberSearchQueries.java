@@ -0,0 +1,193 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.support.CountQueries;
+import study.querydsl.repository.support.InvalidSearchRequestException;
+import study.querydsl.repository.support.ReadOnlyQueries;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/*
+    MemberSearchCondition 검색 쿼리의 JPQL 캐시
+    usernameEq / teamNameEq / ageGoe / ageLoe 각각 있거나 없거나 -> where 절 모양(shape)은 16가지 뿐이다.
+    (teamName 은 TeamNameDictionary 에 있으면 team.id 조건, 없으면 조인 조건 -> 최대 24가지)
+    모양별로 querydsl -> JPQL 직렬화를 한번만 해두고, 요청마다 파라미터 값만 바인딩해서 실행한다.
+    (JPQL 문자열이 항상 같으므로 Hibernate 쿼리 플랜 캐시도 그대로 재사용된다)
+    teamName 은 조인 대신 TeamNameDictionary 에서 채우므로 팀 이름으로 검색하지 않는 한 team 조인이 없다.
+ */
+@Component
+public class MemberSearchQueries {
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+    private static final int TEAM_ID = 1 << 4; // teamName -> 사전의 team id 목록 (조인 없음)
+    private static final int MAX_CACHED_SHAPES = 256; // 정렬 조합이 계속 늘어나는 경우 대비 (넘으면 캐시하지 않고 매번 직렬화)
+
+    private static final Param<String> USERNAME_PARAM = new Param<>(String.class, "username");
+    private static final Param<String> TEAM_NAME_PARAM = new Param<>(String.class, "teamName");
+    private static final Param<Integer> AGE_GOE_PARAM = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> AGE_LOE_PARAM = new Param<>(Integer.class, "ageLoe");
+    private static final Param<Collection<Long>> TEAM_IDS_PARAM = new Param<>(longCollection(), "teamIds");
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TeamNameDictionary teamNameDictionary;
+    private final ReadOnlyQueries readOnlyQueries;
+    private final Map<Shape, CompiledQuery> compiled = new ConcurrentHashMap<>();
+
+    public MemberSearchQueries(EntityManager em, TeamNameDictionary teamNameDictionary, ReadOnlyQueries readOnlyQueries) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.teamNameDictionary = teamNameDictionary;
+        this.readOnlyQueries = readOnlyQueries;
+    }
+
+    public List<MemberTeamDto> fetch(MemberSearchCondition condition) {
+        return fetch(condition, List.of(), null, null);
+    }
+
+    // offset / limit 은 JPQL 이 아니라 setFirstResult / setMaxResults 로 -> 페이지가 바뀌어도 같은 모양
+    public List<MemberTeamDto> fetch(MemberSearchCondition condition, List<OrderSpecifier<?>> orders, Long offset, Integer limit) {
+        teamNameDictionary.flushPendingTeamChanges(); // 결과의 팀 이름을 사전에서 채우므로 (member 만 조회하면 team 은 auto flush 되지 않는다)
+        Binding binding = bind(condition);
+        Query query = createQuery(new Shape(binding.shape(), List.copyOf(orders), false), binding);
+        if (offset != null) {
+            if (offset > Integer.MAX_VALUE) { // JPA 는 int offset 만 받는다
+                throw new InvalidSearchRequestException("Offset too large: " + offset);
+            }
+            query.setFirstResult(offset.intValue());
+        }
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+        List<?> rows = query.getResultList();
+        return rows.stream()
+                .map(Object[].class::cast)
+                .map(row -> new MemberTeamDto((Long) row[0], (String) row[1], (Integer) row[2], (Long) row[3],
+                        teamNameDictionary.nameOf((Long) row[3])))
+                .toList();
+    }
+
+    // CountQueries 로 줄인 카운트 쿼리 (team 조건이 없으면 조인 없는 count(member.id))
+    public long count(MemberSearchCondition condition) {
+        Binding binding = bind(condition);
+        Object total = createQuery(new Shape(binding.shape(), List.of(), true), binding).getSingleResult();
+        return ((Number) total).longValue();
+    }
+
+    int cachedShapes() {
+        return compiled.size();
+    }
+
+    private Query createQuery(Shape shape, Binding binding) {
+        CompiledQuery compiledQuery = compiled.get(shape);
+        if (compiledQuery == null) {
+            compiledQuery = compile(shape);
+            if (compiled.size() < MAX_CACHED_SHAPES) {
+                compiled.putIfAbsent(shape, compiledQuery);
+            }
+        }
+        Query query = readOnlyQueries.apply(em.createQuery(compiledQuery.jpql()));
+        JPAUtil.setConstants(query, compiledQuery.constants(), binding.params());
+        return query;
+    }
+
+    private CompiledQuery compile(Shape shape) {
+        // teamName 은 결과를 만들 때 사전에서 채운다
+        JPAQuery<Tuple> contentQuery = queryFactory
+                .select(member.id,
+                        member.username,
+                        member.age,
+                        member.team.id)
+                .from(member);
+        if ((shape.predicates() & TEAM_NAME) != 0) { // 사전에 없는 팀 이름일 때만 조인
+            contentQuery.leftJoin(member.team, team);
+        }
+        contentQuery
+                .where(predicate(shape.predicates(), USERNAME, member.username.eq(USERNAME_PARAM)),
+                        predicate(shape.predicates(), TEAM_NAME, team.name.eq(TEAM_NAME_PARAM)),
+                        predicate(shape.predicates(), TEAM_ID, Expressions.booleanTemplate("{0} in ({1})", member.team.id, TEAM_IDS_PARAM)),
+                        predicate(shape.predicates(), AGE_GOE, member.age.goe(AGE_GOE_PARAM)),
+                        predicate(shape.predicates(), AGE_LOE, member.age.loe(AGE_LOE_PARAM))
+                )
+                .orderBy(shape.orders().toArray(OrderSpecifier[]::new));
+        JPAQuery<?> query = shape.count() ? CountQueries.countQuery(contentQuery, em) : contentQuery;
+
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em));
+        serializer.serialize(query.getMetadata(), false, null);
+        return new CompiledQuery(serializer.toString(), List.copyOf(serializer.getConstants()));
+    }
+
+    private static BooleanExpression predicate(int shape, int flag, BooleanExpression expression) {
+        return (shape & flag) != 0 ? expression : null;
+    }
+
+    // Collection<Long>.class 는 없으므로 Collection.class 를 제네릭 타입으로 캐스팅 (Param 은 타입 토큰만 들고 있고 검사하지 않는다)
+    @SuppressWarnings("unchecked")
+    private static Class<Collection<Long>> longCollection() {
+        return (Class<Collection<Long>>) (Class<?>) Collection.class;
+    }
+
+    // MemberRepositoryImpl / MemberJpaRepository 의 usernameEq, teamNameEq, ageGoe, ageLoe 와 같은 기준
+    // 모양에 없는 파라미터는 JPQL 에도 없으므로 null 이어도 넣지 않는다
+    private Binding bind(MemberSearchCondition condition) {
+        int shape = 0;
+        Map<ParamExpression<?>, Object> params = new HashMap<>();
+        if (StringUtils.hasText(condition.getUsername())) {
+            shape |= USERNAME;
+            params.put(USERNAME_PARAM, condition.getUsername());
+        }
+        if (StringUtils.hasText(condition.getTeamName())) {
+            List<Long> teamIds = teamNameDictionary.idsForSearch(condition.getTeamName());
+            if (teamIds != null) {
+                shape |= TEAM_ID;
+                params.put(TEAM_IDS_PARAM, teamIds);
+            } else {
+                shape |= TEAM_NAME;
+                params.put(TEAM_NAME_PARAM, condition.getTeamName());
+            }
+        }
+        if (condition.getAgeGoe() != null) {
+            shape |= AGE_GOE;
+            params.put(AGE_GOE_PARAM, condition.getAgeGoe());
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= AGE_LOE;
+            params.put(AGE_LOE_PARAM, condition.getAgeLoe());
+        }
+        return new Binding(shape, params);
+    }
+
+    private record Binding(int shape, Map<ParamExpression<?>, Object> params) {
+    }
+
+    private record Shape(int predicates, List<OrderSpecifier<?>> orders, boolean count) {
+    }
+
+    private record CompiledQuery(String jpql, List<Object> constants) {
+    }
+}
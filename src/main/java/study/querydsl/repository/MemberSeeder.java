@@ -0,0 +1,145 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.SeedReport;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+    대량 데이터 적재 (성능 테스트용 데이터셋)
+    - team 은 teams 개, member 는 rows 개 : 번호 i 에 대해 항상 같은 값
+      username = "member" + i, age = i % 100, team = i % teams ("teamA", "teamB" ... 26개 넘으면 "team" + 번호)
+    - em.persist + hibernate jdbc batch (jdbc.batch_size, order_inserts) : batchSize 건마다 flush / clear,
+      chunkSize 건마다 커밋 (트랜잭션 하나가 너무 커지지 않도록)
+    - threads > 1 이면 member 번호 [0, rows) 를 스레드 수만큼 구간으로 나눠서 각자 적재
+      (스레드마다 자기 트랜잭션 / EntityManager, id 는 시퀀스에서 받으므로 겹치지 않는다)
+ */
+@Component
+public class MemberSeeder {
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+    private final UsernameFilter usernameFilter;
+    private final int batchSize;
+    private final int chunkSize;
+
+    public MemberSeeder(EntityManager em, PlatformTransactionManager transactionManager, UsernameFilter usernameFilter,
+                        @Value("${querydsl.seed.batch-size:100}") int batchSize,
+                        @Value("${querydsl.seed.chunk-size:10000}") int chunkSize) {
+        this.em = em;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.usernameFilter = usernameFilter;
+        this.batchSize = batchSize;
+        this.chunkSize = Math.max(batchSize, chunkSize);
+    }
+
+    public SeedReport seed(long rows, int teams, int threads) {
+        if (rows < 0 || teams < 1 || threads < 1) {
+            throw new IllegalArgumentException("rows=" + rows + ", teams=" + teams + ", threads=" + threads);
+        }
+        long start = System.nanoTime();
+        List<Long> teamIds = tx.execute(status -> persistTeams(teams));
+
+        int workers = (int) Math.max(1, Math.min(threads, rows / chunkSize)); // 구간이 chunk 하나보다 작으면 스레드를 줄인다
+        if (workers == 1) {
+            seedRange(teamIds, 0, rows);
+        } else {
+            seedParallel(teamIds, rows, workers);
+        }
+        usernameFilter.scheduleRebuild(); // 적재 중 추가된 이름을 정리 (필터 크기도 건수에 맞춘다)
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new SeedReport(rows, teams, workers, millis);
+    }
+
+    public static String username(long i) {
+        return "member" + i;
+    }
+
+    public static int age(long i) {
+        return (int) (i % 100);
+    }
+
+    public static String teamName(int t, int teams) {
+        return teams <= 26 ? "team" + (char) ('A' + t) : "team" + t;
+    }
+
+    private List<Long> persistTeams(int teams) {
+        List<Long> teamIds = new ArrayList<>(teams);
+        for (int t = 0; t < teams; t++) {
+            Team team = new Team(teamName(t, teams));
+            em.persist(team);
+            teamIds.add(team.getId());
+        }
+        return teamIds;
+    }
+
+    private void seedParallel(List<Long> teamIds, long rows, int workers) {
+        ExecutorService executor = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("member-seeder-"));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            long rangeSize = (rows + workers - 1) / workers;
+            for (long from = 0; from < rows; from += rangeSize) {
+                long rangeStart = from;
+                long rangeEnd = Math.min(rows, from + rangeSize);
+                futures.add(executor.submit(() -> seedRange(teamIds, rangeStart, rangeEnd)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while seeding members", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Seeding members failed", e.getCause());
+        } finally {
+            executor.shutdownNow(); // 실패시 나머지 스레드도 중단 (이미 커밋된 chunk 는 남는다)
+        }
+    }
+
+    private void seedRange(List<Long> teamIds, long from, long to) {
+        for (long chunkStart = from; chunkStart < to; chunkStart += chunkSize) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Seeding interrupted at member " + chunkStart);
+            }
+            long start = chunkStart;
+            long end = Math.min(to, chunkStart + chunkSize);
+            tx.executeWithoutResult(status -> persistChunk(teamIds, start, end));
+        }
+    }
+
+    private void persistChunk(List<Long> teamIds, long from, long to) {
+        List<Team> teams = teamReferences(teamIds);
+        for (long i = from; i < to; i++) {
+            em.persist(new Member(username(i), age(i), teams.get((int) (i % teams.size()))));
+            if ((i - from + 1) % batchSize == 0) {
+                em.flush();
+                em.clear();
+                teams = teamReferences(teamIds); // clear 후에는 새 프록시
+            }
+        }
+    }
+
+    // 프록시만 사용 -> select 없고, changeTeam 이 Team.members 를 건드리지 않는다
+    private List<Team> teamReferences(List<Long> teamIds) {
+        List<Team> teams = new ArrayList<>(teamIds.size());
+        for (Long teamId : teamIds) {
+            teams.add(em.getReference(Team.class, teamId));
+        }
+        return teams;
+    }
+}
@@ -0,0 +1,183 @@
+package study.querydsl.repository;
+
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.support.OffHeapSegments;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/*
+    MemberTeamDto 목록을 off-heap ByteBuffer 하나로 인코딩 (검색 결과 캐시 값용)
+    | 행 수(int) | 팀 이름표 위치(int) | 행별 시작 위치(int * 행 수) | 행 ... | 팀 이름표 |
+    행 : memberId, username, age, teamId, teamName 번호 (모두 varint, null 은 0 으로 표시)
+    - id / age : zigzag varint (작은 값은 1~3 byte)
+    - username : 길이 varint + UTF-8
+    - teamName : 이 buffer 의 팀 이름표 번호 (한 페이지의 팀은 적으므로 이름은 한번만 저장)
+      이름표를 buffer 마다 두므로 codec 에 공유 상태가 없다 (팀 생성 / 이름 변경이 쌓이지 않고, 캐시 항목과 같이 사라진다)
+    힙에는 ByteBuffer 객체 하나만 남고, 읽을 때 요청한 행만 MemberTeamDto 로 만든다 (decode 결과는 lazy List).
+ */
+public class MemberTeamDtoCodec {
+    private static final int HEADER_INTS = 2;
+
+    private final OffHeapSegments segments;
+
+    public MemberTeamDtoCodec(OffHeapSegments segments) {
+        this.segments = segments;
+    }
+
+    public ByteBuffer encode(List<MemberTeamDto> rows) {
+        Output rowBytes = new Output(rows.size() * 16);
+        Map<String, Integer> teamNameCodes = new HashMap<>();
+        List<String> teamNames = new ArrayList<>();
+        int[] offsets = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            offsets[i] = rowBytes.size();
+            MemberTeamDto row = rows.get(i);
+            rowBytes.writeNullableLong(row.getMemberId());
+            rowBytes.writeString(row.getUsername());
+            rowBytes.writeNullableLong((long) row.getAge());
+            rowBytes.writeNullableLong(row.getTeamId());
+            String teamName = row.getTeamName();
+            rowBytes.writeVarLong(teamName == null ? 0 : teamNameCodes.computeIfAbsent(teamName, name -> {
+                teamNames.add(name);
+                return teamNames.size();
+            }));
+        }
+        Output nameBytes = new Output(teamNames.size() * 8 + 1);
+        nameBytes.writeVarLong(teamNames.size());
+        teamNames.forEach(nameBytes::writeString);
+
+        int headerSize = Integer.BYTES * (HEADER_INTS + rows.size());
+        ByteBuffer buffer = segments.allocate(headerSize + rowBytes.size() + nameBytes.size());
+        buffer.putInt(rows.size());
+        buffer.putInt(headerSize + rowBytes.size());
+        for (int offset : offsets) {
+            buffer.putInt(headerSize + offset);
+        }
+        buffer.put(rowBytes.bytes(), 0, rowBytes.size());
+        buffer.put(nameBytes.bytes(), 0, nameBytes.size());
+        return buffer.flip().asReadOnlyBuffer();
+    }
+
+    public List<MemberTeamDto> decode(ByteBuffer encoded) {
+        return new EncodedList(encoded);
+    }
+
+    private static final class EncodedList extends AbstractList<MemberTeamDto> implements RandomAccess {
+        private final ByteBuffer buffer;
+        private final int size;
+        private final String[] teamNames;
+
+        private EncodedList(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.size = buffer.getInt(0);
+            Input names = new Input(buffer, buffer.getInt(Integer.BYTES));
+            this.teamNames = new String[(int) names.readVarLong()];
+            for (int i = 0; i < teamNames.length; i++) {
+                teamNames[i] = names.readString();
+            }
+        }
+
+        @Override
+        public MemberTeamDto get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            Input input = new Input(buffer, buffer.getInt(Integer.BYTES * (HEADER_INTS + index)));
+            Long memberId = input.readNullableLong();
+            String username = input.readString();
+            int age = input.readNullableLong().intValue();
+            Long teamId = input.readNullableLong();
+            long teamNameCode = input.readVarLong();
+            String teamName = teamNameCode == 0 ? null : teamNames[(int) teamNameCode - 1];
+            return new MemberTeamDto(memberId, username, age, teamId, teamName);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private static final class Output extends ByteArrayOutputStream {
+        private Output(int size) {
+            super(size);
+        }
+
+        private byte[] bytes() {
+            return buf;
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        private void writeNullableLong(Long value) {
+            writeVarLong(value == null ? 0 : ((value << 1) ^ (value >> 63)) + 1); // zigzag + 1 (0 은 null)
+        }
+
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    // 절대 위치로 읽으므로 여러 스레드가 같은 buffer 를 동시에 읽어도 된다
+    private static final class Input {
+        private final ByteBuffer buffer;
+        private int position;
+
+        private Input(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        private Long readNullableLong() {
+            long raw = readVarLong();
+            if (raw == 0) {
+                return null;
+            }
+            long zigzag = raw - 1;
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        private String readString() {
+            long length = readVarLong();
+            if (length == 0) {
+                return null;
+            }
+            byte[] bytes = new byte[(int) length - 1];
+            buffer.get(position, bytes);
+            position += bytes.length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.entity.Member;
@@ -18,6 +19,7 @@ import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.team;
 
 @Repository
+@Transactional(readOnly = true)
 public class MemberTestRepository extends Querydsl4RepositorySupport {
     public MemberTestRepository() {
         super(Member.class);
@@ -41,7 +43,7 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
                 .where(usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.setAgeLoe())
+                        ageLoe(condition.getAgeLoe())
                 );
 
         // 기존 방식
@@ -58,7 +60,7 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
                         .where(usernameEq(condition.getUsername()),
                                 teamNameEq(condition.getTeamName()),
                                 ageGoe(condition.getAgeGoe()),
-                                ageLoe(condition.setAgeLoe())
+                                ageLoe(condition.getAgeLoe())
                         )
         );
     }
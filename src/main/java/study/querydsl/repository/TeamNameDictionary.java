@@ -0,0 +1,221 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.TableWriteTracker;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QTeam.team;
+
+/*
+    팀 이름 <-> id 사전 (읽기 위주, 팀은 적고 거의 바뀌지 않는다)
+    - 검색 조건의 teamName 을 member.team.id 조건(FK 컬럼)으로 바꿔서 team 조인 없이 검색/카운트
+    - 결과의 teamName 을 조인 대신 사전에서 채운다
+    team 테이블에 쓰기가 있으면(TableWriteTracker 버전) 다음 조회 때 다시 읽는다.
+    아직 flush 되지 않은 팀은 사전에 없다 -> idsOf 가 null 이면 호출하는 쪽에서 기존 조인 조건을 쓴다.
+    검색 조건은 idsForSearch : member 만 조회하는 조건이 되면 team 의 auto flush 가 일어나지 않으므로
+    읽기/쓰기 트랜잭션에 flush 안된 Team 변경(persist, 이름 변경, remove)이 있으면 먼저 flush 하고 사전을 본다.
+    - 현재 트랜잭션에 커밋 전 team 쓰기가 있으면 공유 사전 대신 그 트랜잭션 전용 사전을 읽는다
+      (커밋 전 이름이 다른 트랜잭션에 보이거나, 공유 사전 때문에 자기 쓰기가 안 보이는 경우 방지)
+    - 다른 인스턴스 / JDBC 로 바뀐 팀은 버전으로 알 수 없으므로 공유 사전은 ttl 이 지나면 다시 읽는다
+ */
+@Component
+public class TeamNameDictionary {
+    private static final String TEAM_TABLE = "team";
+    private static final Set<Serializable> TEAM_SPACES = Set.of(TEAM_TABLE); // ActionQueue 의 query space
+    private static final long FORCED_RELOAD_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TableWriteTracker tableWriteTracker;
+    private final long ttlNanos;
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of(), -1, System.nanoTime() - FORCED_RELOAD_INTERVAL_NANOS, false);
+
+    public TeamNameDictionary(EntityManager em, TableWriteTracker tableWriteTracker,
+                              @Value("${querydsl.team-dictionary.ttl-seconds:60}") long ttlSeconds) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.tableWriteTracker = tableWriteTracker;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    // 팀 이름은 unique 가 아니므로 id 목록 (모르는 이름이면 null)
+    public List<Long> idsOf(String teamName) {
+        return current().idsByName().get(teamName);
+    }
+
+    // 검색 조건용 : flush 안된 Team 변경이 있으면 먼저 flush (이름 -> id 가 현재 트랜잭션에서 보이는 값과 같도록)
+    public List<Long> idsForSearch(String teamName) {
+        flushPendingTeamChanges();
+        return idsOf(teamName);
+    }
+
+    // 검색 결과의 팀 이름을 사전에서 채우기 전에 호출 (team 을 조인하지 않는 쿼리는 team 변경을 auto flush 하지 않는다)
+    public void flushPendingTeamChanges() {
+        if (hasPendingTeamChanges()) {
+            em.flush(); // team 버전이 바뀌어 다음 조회 때 다시 읽는다
+        }
+    }
+
+    public String nameOf(Long teamId) {
+        if (teamId == null) {
+            return null;
+        }
+        Snapshot current = current();
+        if (!current.nameById().containsKey(teamId) && !current.transactional()) { // FK 로 참조되는 팀은 DB 에 있으므로 한번 더 읽어본다
+            current = forceReload(current);
+        }
+        return current.nameById().get(teamId);
+    }
+
+    /*
+        모르는 id 가 몰려와도 전체 다시 읽기는 한번만
+        - 기다리는 동안 다른 스레드가 이미 다시 읽었으면 그 결과를 쓴다
+        - 강제로 다시 읽는 것은 FORCED_RELOAD_INTERVAL 에 한번까지 (그 사이에는 이름 없이 반환)
+     */
+    private synchronized Snapshot forceReload(Snapshot seen) {
+        Snapshot latest = snapshot;
+        if (latest != seen || System.nanoTime() - latest.loadedAt() < FORCED_RELOAD_INTERVAL_NANOS) {
+            return latest;
+        }
+        return reload(true);
+    }
+
+    // 읽기/쓰기 트랜잭션에서만 (읽기 전용이거나 트랜잭션이 없으면 flush 되지 않는다)
+    private boolean hasPendingTeamChanges() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        if (session.getActionQueue().areTablesToBeUpdated(TEAM_SPACES)) { // persist / remove
+            return true;
+        }
+        // 이름 변경은 flush 때 dirty checking 으로 찾으므로 관리 중인 Team 만 직접 비교 (Session.isDirty 처럼 전체를 비교하지 않는다)
+        PersistenceContext context = session.getPersistenceContextInternal();
+        for (Map.Entry<EntityKey, Object> managed : context.getEntitiesByKey().entrySet()) {
+            if (managed.getKey().getPersister().getMappedClass() == Team.class && isDirty(managed.getValue(), context.getEntry(managed.getValue()), session)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDirty(Object entity, EntityEntry entry, SessionImplementor session) {
+        if (entry == null || entry.getLoadedState() == null) { // 읽기 전용 / 삭제 예정
+            return false;
+        }
+        if (entity instanceof SelfDirtinessTracker tracker) { // 바이트코드 향상 dirty tracking
+            return tracker.$$_hibernate_hasDirtyAttributes();
+        }
+        EntityPersister persister = entry.getPersister();
+        return persister.findDirty(persister.getValues(entity), entry.getLoadedState(), entity, session) != null;
+    }
+
+    private Snapshot current() {
+        if (tableWriteTracker.hasUncommittedWrites(TEAM_TABLE)) {
+            return transactionSnapshot();
+        }
+        Snapshot current = snapshot;
+        return isFresh(current, tableWriteTracker.version(TEAM_TABLE)) ? current : reload(false);
+    }
+
+    private boolean isFresh(Snapshot current, long version) {
+        return current.version() == version && System.nanoTime() - current.loadedAt() < ttlNanos;
+    }
+
+    // 공유 사전 : 커밋된 팀만 (auto flush 로 현재 트랜잭션의 Team 변경이 DB 에 나가지 않도록 FlushMode.COMMIT)
+    private synchronized Snapshot reload(boolean force) {
+        long version = tableWriteTracker.version(TEAM_TABLE); // 읽기 전 버전 (읽는 동안 쓰기가 있으면 다음에 다시 읽는다)
+        if (!force && isFresh(snapshot, version)) { // 다른 스레드가 먼저 읽었음
+            return snapshot;
+        }
+        snapshot = load(version, FlushModeType.COMMIT, false);
+        return snapshot;
+    }
+
+    /*
+        커밋 전 team 쓰기가 있는 트랜잭션 전용 사전 (트랜잭션 리소스로 바인딩, 공유 사전에는 넣지 않는다)
+        이 트랜잭션이 team 에 다시 쓰면 버전이 바뀌므로 그때 다시 읽는다
+     */
+    private Snapshot transactionSnapshot() {
+        TransactionSnapshot holder = (TransactionSnapshot) TransactionSynchronizationManager.getResource(this);
+        long version = tableWriteTracker.version(TEAM_TABLE);
+        if (holder != null && holder.snapshot.version() == version) {
+            return holder.snapshot;
+        }
+        Snapshot loaded = load(version, FlushModeType.AUTO, true);
+        if (holder == null) {
+            holder = new TransactionSnapshot();
+            TransactionSynchronizationManager.bindResource(this, holder);
+            TransactionSynchronizationManager.registerSynchronization(holder);
+        }
+        holder.snapshot = loaded;
+        return loaded;
+    }
+
+    private Snapshot load(long version, FlushModeType flushMode, boolean transactional) {
+        List<Tuple> teams = queryFactory
+                .select(team.id, team.name)
+                .from(team)
+                .setFlushMode(flushMode)
+                .fetch();
+        Map<String, List<Long>> idsByName = new HashMap<>();
+        Map<Long, String> nameById = new HashMap<>();
+        for (Tuple tuple : teams) {
+            Long id = tuple.get(team.id);
+            String name = tuple.get(team.name);
+            nameById.put(id, name);
+            if (name != null) {
+                idsByName.computeIfAbsent(name, key -> new ArrayList<>()).add(id);
+            }
+        }
+        idsByName.replaceAll((name, ids) -> List.copyOf(ids));
+        return new Snapshot(Map.copyOf(idsByName), Collections.unmodifiableMap(nameById), version, System.nanoTime(), transactional); // 이름이 null 인 팀도 있을 수 있다
+    }
+
+    private record Snapshot(Map<String, List<Long>> idsByName, Map<Long, String> nameById, long version, long loadedAt,
+                            boolean transactional) {
+    }
+
+    // REQUIRES_NEW 로 정지되면 풀어두고 재개될 때 다시 바인딩 (TableWriteTracker 의 쓴 테이블 목록과 같은 방식)
+    private class TransactionSnapshot implements TransactionSynchronization {
+        private Snapshot snapshot;
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TeamNameDictionary.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(TeamNameDictionary.this, this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TeamNameDictionary.this);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.BloomFilter;
+import study.querydsl.repository.support.EntityCommitListener;
+import study.querydsl.repository.support.TableWriteTracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static study.querydsl.entity.QMember.member;
+
+/*
+    username 존재 여부 Bloom filter (로그인처럼 대부분 없는 username 으로 조회하는 경우 DB 왕복 생략)
+    - 기동 후 member.username 을 스트리밍으로 읽어서 만들고, persist / 이름 변경은 flush 시점에 바로 추가한다
+    - 삭제는 Bloom filter 에서 뺄 수 없으므로 주기적으로 다시 만든다 (지워진 이름은 그때까지 오탐으로만 남는다)
+    - username 을 바꾸는 벌크 update / insert ... select 는 엔티티 이벤트가 없다
+      -> SQL 을 보고 다시 만들 때까지 필터를 거치지 않는다 (커밋 후 재생성)
+    "확실히 없음" 일 때만 빈 결과를 돌려주고, 그 외에는 항상 쿼리를 실행한다.
+ */
+@Component
+public class UsernameFilter {
+    private static final String MEMBER_TABLE = "member";
+    private static final Pattern COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern UPDATE_SET = Pattern.compile(
+            "^\\s*update\\s+member\\b(.*?)\\bset\\b(.*?)(?:\\bwhere\\b(.*))?$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern SETS_USERNAME = Pattern.compile("\\busername\\s*=", Pattern.CASE_INSENSITIVE);
+    private static final Pattern BY_ID = Pattern.compile("^\\s*(?:\\w+\\.)?member_id\\s*=\\s*\\?\\s*$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern INSERT_SELECT = Pattern.compile(
+            "^\\s*insert\\s+into\\s+member\\b.*\\bselect\\b", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTx;
+    private final ScheduledExecutorService scheduler;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double fpp;
+    private final long rebuildIntervalMinutes;
+    private final int fetchSize;
+
+    private volatile BloomFilter filter; // null 이면 아직 만들기 전
+    private final AtomicLong rebuilds = new AtomicLong(); // 시작한 재생성 수
+    private volatile boolean rebuilding;
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    // 다시 만들 때 스캔이 못 볼 수도 있는 이름 (커밋 전이거나 스캔 시작 뒤에 커밋) -> 새 필터에 다시 넣는다
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+    // username 벌크 쓰기 : 감지된 수 / 아직 커밋 안된 수 / 재생성으로 반영된 수
+    private final AtomicLong bulkWrites = new AtomicLong();
+    private final AtomicInteger pendingBulkWrites = new AtomicInteger();
+    private volatile long coveredBulkWrites;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder shortCircuits = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder passThroughs = new LongAdder();
+
+    public UsernameFilter(EntityManager em, PlatformTransactionManager transactionManager,
+                          EntityCommitListener entityCommitListener, TableWriteTracker tableWriteTracker,
+                          @Value("${querydsl.username-filter.enabled:true}") boolean enabled,
+                          @Value("${querydsl.username-filter.expected-insertions:100000}") long expectedInsertions,
+                          @Value("${querydsl.username-filter.fpp:0.01}") double fpp,
+                          @Value("${querydsl.username-filter.rebuild-interval-minutes:60}") long rebuildIntervalMinutes,
+                          @Value("${querydsl.username-filter.fetch-size:1000}") int fetchSize) {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("username-filter-"));
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.rebuildIntervalMinutes = rebuildIntervalMinutes;
+        this.fetchSize = fetchSize;
+
+        entityCommitListener.onWrite(Member.class, written -> add(written.getUsername()));
+        tableWriteTracker.onStatement(MEMBER_TABLE, this::onMemberStatement);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduleRebuild();
+        if (rebuildIntervalMinutes > 0) {
+            scheduler.scheduleWithFixedDelay(this::rebuild, rebuildIntervalMinutes, rebuildIntervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    // 필터가 "확실히 없음" 이면 쿼리 없이 빈 목록, 아니면 query 실행
+    public <T> List<T> lookup(String username, Supplier<List<T>> query) {
+        if (username == null || !isUsable() || inReadWriteTransaction()) {
+            passThroughs.increment();
+            return query.get();
+        }
+        if (!filter.mightContain(username)) {
+            shortCircuits.increment();
+            return new ArrayList<>();
+        }
+        List<T> result = query.get();
+        if (result.isEmpty()) {
+            falsePositives.increment();
+        } else {
+            hits.increment();
+        }
+        return result;
+    }
+
+    public boolean isUsable() {
+        return enabled && filter != null && !isStale();
+    }
+
+    // username 벌크 쓰기 후 아직 다시 만들지 못했으면 true
+    public boolean isStale() {
+        return pendingBulkWrites.get() > 0 || coveredBulkWrites < bulkWrites.get();
+    }
+
+    /*
+        member.username 전체를 다시 읽어서 새 필터로 교체 (동시에 하나만)
+        읽기 전에 건수를 세서 expected-insertions 보다 많으면 그만큼 크게 만든다 (오탐률 유지)
+     */
+    public synchronized void rebuild() {
+        rebuilding = true;
+        try {
+            rebuildFilter();
+        } finally {
+            rebuilding = false;
+        }
+    }
+
+    private void rebuildFilter() {
+        long rebuild = rebuilds.incrementAndGet();
+        long bulkGeneration = bulkWrites.get();
+        boolean coversBulkWrites = pendingBulkWrites.get() == 0; // 커밋 전 벌크 쓰기가 있으면 그 커밋 후 다시 만든다
+
+        BloomFilter next = readOnlyTx.execute(status -> {
+            Long count = queryFactory.select(member.count()).from(member).fetchOne();
+            BloomFilter building = new BloomFilter(Math.max(expectedInsertions, count == null ? 0 : count * 2), fpp);
+            try (Stream<String> usernames = queryFactory
+                    .select(member.username)
+                    .from(member)
+                    .where(member.username.isNotNull())
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .stream()) {
+                usernames.forEach(building::put);
+            }
+            return building;
+        });
+        // 교체 전에 먼저 넣는다 : 스캔 시작 뒤에 커밋된 이름이 빠진 필터가 잠깐이라도 "확실히 없음" 이라고 답하지 않도록
+        recentWrites.keySet().forEach(next::put);
+        filter = next;
+        // 교체 후에 한번 더 (위 반복과 교체 사이에 add 된 이름, 교체 전에 add 된 이름은 이미 recentWrites 에 있다)
+        recentWrites.forEach((username, committedAt) -> {
+            next.put(username);
+            if (committedAt < rebuild) { // 이번 스캔 시작 전에 커밋(또는 롤백) -> 스캔에 포함됨
+                recentWrites.remove(username, committedAt);
+            }
+        });
+        if (coversBulkWrites) {
+            coveredBulkWrites = bulkGeneration;
+        }
+    }
+
+    public void scheduleRebuild() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                rebuildQueued.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long shortCircuits() {
+        return shortCircuits.sum();
+    }
+
+    public long falsePositives() {
+        return falsePositives.sum();
+    }
+
+    public long passThroughs() {
+        return passThroughs.sum();
+    }
+
+    private void add(String username) {
+        if (username == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentWrites.put(username, Long.MAX_VALUE);
+            uncommittedWrites().add(username);
+        } else {
+            completed(username);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(username);
+        }
+    }
+
+    // 트랜잭션당 synchronization 한번만 등록 (대량 적재시 member 마다 등록하지 않도록, REQUIRES_NEW 는 자기 목록)
+    private List<String> uncommittedWrites() {
+        @SuppressWarnings("unchecked")
+        List<String> usernames = (List<String>) TransactionSynchronizationManager.getResource(this);
+        if (usernames == null) {
+            List<String> written = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, written);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(UsernameFilter.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(UsernameFilter.this, written);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(UsernameFilter.this);
+                    written.forEach(UsernameFilter.this::completed);
+                }
+            });
+            usernames = written;
+        }
+        return usernames;
+    }
+
+    // 커밋(또는 롤백) 후 : 진행 중인 재생성이 없으면 다음 스캔이 보게 되므로 더 들고 있을 필요가 없다
+    private void completed(String username) {
+        if (rebuilding) {
+            recentWrites.put(username, rebuilds.get());
+        } else {
+            recentWrites.remove(username);
+        }
+    }
+
+    private void onMemberStatement(String sql) {
+        if (!writesUsernameInBulk(sql)) {
+            return;
+        }
+        bulkWrites.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingBulkWrites.incrementAndGet();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    pendingBulkWrites.decrementAndGet();
+                    scheduleRebuild();
+                }
+            });
+        } else {
+            scheduleRebuild();
+        }
+    }
+
+    /*
+        같은 트랜잭션에서 아직 flush 되지 않은 persist / 이름 변경은 필터에 없다
+        Session.isDirty() 는 영속성 컨텍스트 전체를 dirty checking 하므로(건너뛰려는 쿼리보다 비쌀 수 있다)
+        읽기/쓰기 트랜잭션이면 필터를 거치지 않는다 (읽기 전용이거나 트랜잭션이 없으면 flush 될 변경이 없다)
+     */
+    private static boolean inReadWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    // 엔티티 한건 update (where member_id=?) 는 POST_UPDATE 이벤트로 이미 반영된다
+    static boolean writesUsernameInBulk(String sql) {
+        String statement = COMMENT.matcher(sql).replaceAll(" ");
+        if (INSERT_SELECT.matcher(statement).find()) {
+            return true;
+        }
+        Matcher update = UPDATE_SET.matcher(statement);
+        if (!update.find() || !SETS_USERNAME.matcher(update.group(2)).find()) {
+            return false;
+        }
+        String where = update.group(3);
+        return where == null || !BY_ID.matcher(where).matches();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
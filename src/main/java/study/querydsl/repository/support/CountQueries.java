@@ -0,0 +1,182 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinFlag;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.CollectionExpression;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.MapExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPAQueryMixin;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+    컨텐츠 쿼리의 메타데이터로부터 카운트 쿼리를 만든다.
+    - order by, projection, fetch join 제거
+    - where / group by / having (그리고 남는 조인의 on 절) 에서 참조하지 않는 to-one left join 제거
+      (to-one 연관관계 경로의 left join 은 행 수를 바꾸지 않으므로 카운트 결과가 같다.
+       컬렉션 조인, leftJoin(team).on(...) 같은 엔티티 조인은 행 수가 바뀔 수 있으므로 유지)
+    - select count(root.id)
+ */
+public final class CountQueries {
+    private static final Set<JoinFlag> FETCH_FLAGS = Set.of(JPAQueryMixin.FETCH, JPAQueryMixin.FETCH_ALL_PROPERTIES);
+
+    private CountQueries() {
+    }
+
+    public static JPAQuery<Long> countQuery(JPAQuery<?> contentQuery, EntityManager em) {
+        QueryMetadata source = contentQuery.getMetadata();
+        if (!source.getGroupBy().isEmpty()) {
+            throw new IllegalArgumentException("group by query can not be slimmed to count(id), use fetchCount");
+        }
+        List<JoinExpression> joins = source.getJoins();
+
+        Set<Path<?>> referenced = new HashSet<>();
+        collectRoots(source.getWhere(), referenced);
+        collectRoots(source.getHaving(), referenced);
+
+        // 뒤쪽 조인이 앞쪽 alias 를 참조할 수 있으므로 뒤에서부터 남길 조인을 결정
+        Deque<JoinExpression> kept = new ArrayDeque<>();
+        for (int i = joins.size() - 1; i >= 0; i--) {
+            JoinExpression join = joins.get(i);
+            if (isRemovable(join, referenced)) {
+                continue;
+            }
+            collectRoots(join.getTarget(), referenced);
+            collectRoots(join.getCondition(), referenced);
+            kept.addFirst(join);
+        }
+
+        DefaultQueryMetadata metadata = new DefaultQueryMetadata();
+        for (JoinExpression join : kept) {
+            metadata.addJoin(join.getType(), join.getTarget());
+            if (join.getCondition() != null) {
+                metadata.addJoinCondition(join.getCondition());
+            }
+            for (JoinFlag flag : join.getFlags()) {
+                if (!FETCH_FLAGS.contains(flag)) {
+                    metadata.addJoinFlag(flag);
+                }
+            }
+        }
+        if (source.getWhere() != null) {
+            metadata.addWhere(source.getWhere());
+        }
+        if (source.getHaving() != null) {
+            metadata.addHaving(source.getHaving());
+        }
+        copyParams(source, metadata);
+
+        Path<?> root = aliasOf(joins.get(0).getTarget());
+        Expression<?> counted = idPath(root, em);
+        Ops.AggOps countOp = source.isDistinct() ? Ops.AggOps.COUNT_DISTINCT_AGG : Ops.AggOps.COUNT_AGG;
+        return new JPAQuery<>(em, metadata).select(Expressions.numberOperation(Long.class, countOp, counted));
+    }
+
+    // group by 쿼리는 그룹 수를 세야 하므로 기존 fetchCount 로 처리 (order by 만 제거)
+    public static long fetchCount(JPAQuery<?> contentQuery, EntityManager em) {
+        if (!contentQuery.getMetadata().getGroupBy().isEmpty()) {
+            JPAQuery<?> grouped = contentQuery.clone();
+            grouped.getMetadata().clearOrderBy();
+            return grouped.fetchCount();
+        }
+        return countQuery(contentQuery, em).fetchOne();
+    }
+
+    // expr 이 alias 를 참조하는지 (참조하지 않으면 그 alias 의 조인이 필요 없다)
+    public static boolean references(Expression<?> expr, Path<?> alias) {
+        Set<Path<?>> roots = new HashSet<>();
+        collectRoots(expr, roots);
+        return roots.contains(alias);
+    }
+
+    private static boolean isRemovable(JoinExpression join, Set<Path<?>> referenced) {
+        if (join.getType() != JoinType.LEFTJOIN) {
+            return false;
+        }
+        Expression<?> target = join.getTarget();
+        Expression<?> joined = target instanceof Operation<?> alias && alias.getOperator() == Ops.ALIAS ? alias.getArg(0) : target;
+        // member.team 처럼 단일 값 연관관계 경로만 (엔티티 루트, 컬렉션 / 맵 경로는 유지)
+        if (!(joined instanceof Path<?> path) || path.getMetadata().isRoot()
+                || joined instanceof CollectionExpression || joined instanceof MapExpression) {
+            return false;
+        }
+        return !referenced.contains(aliasOf(target));
+    }
+
+    // leftJoin(member.team, team) 의 target 은 alias(member.team, team) 연산
+    private static Path<?> aliasOf(Expression<?> target) {
+        if (target instanceof Operation<?> alias && alias.getOperator() == Ops.ALIAS) {
+            return (Path<?>) alias.getArg(1);
+        }
+        return (Path<?>) target;
+    }
+
+    private static Expression<?> idPath(Path<?> root, EntityManager em) {
+        JpaEntityInformation<?, ?> entityInformation = JpaEntityInformationSupport.getEntityInformation(root.getType(), em);
+        if (entityInformation.getIdAttribute() == null) { // 복합키 등은 엔티티 자체를 센다
+            return root;
+        }
+        return new PathBuilder<>(root.getType(), root.getMetadata()).get(entityInformation.getIdAttribute().getName());
+    }
+
+    private static void collectRoots(Expression<?> expr, Set<Path<?>> roots) {
+        if (expr == null) {
+            return;
+        }
+        if (expr instanceof Path<?> path) { // member.team.name -> member.team.name, member.team, member (alias 없는 조인 경로도 참조로 본다)
+            for (Path<?> current = path; current != null; current = current.getMetadata().getParent()) {
+                roots.add(current);
+            }
+        } else if (expr instanceof Operation<?> operation) {
+            operation.getArgs().forEach(arg -> collectRoots(arg, roots));
+        } else if (expr instanceof TemplateExpression<?> template) {
+            template.getArgs().forEach(arg -> {
+                if (arg instanceof Expression<?> argExpr) {
+                    collectRoots(argExpr, roots);
+                }
+            });
+        } else if (expr instanceof FactoryExpression<?> factory) {
+            factory.getArgs().forEach(arg -> collectRoots(arg, roots));
+        } else if (expr instanceof SubQueryExpression<?> subQuery) { // 상관 서브쿼리에서 바깥 alias 를 참조하는 경우
+            QueryMetadata metadata = subQuery.getMetadata();
+            metadata.getJoins().forEach(join -> {
+                collectRoots(join.getTarget(), roots);
+                collectRoots(join.getCondition(), roots);
+            });
+            collectRoots(metadata.getWhere(), roots);
+            collectRoots(metadata.getHaving(), roots);
+            metadata.getGroupBy().forEach(groupBy -> collectRoots(groupBy, roots));
+            metadata.getOrderBy().stream().map(OrderSpecifier::getTarget).forEach(target -> collectRoots(target, roots));
+            collectRoots(metadata.getProjection(), roots);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void copyParams(QueryMetadata source, QueryMetadata target) {
+        for (Map.Entry<ParamExpression<?>, Object> param : source.getParams().entrySet()) {
+            target.setParam((ParamExpression) param.getKey(), param.getValue());
+        }
+    }
+}
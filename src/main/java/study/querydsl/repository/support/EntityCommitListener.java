@@ -0,0 +1,134 @@
+package study.querydsl.repository.support;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/*
+    엔티티 insert / update / delete 가 커밋된 뒤(또는 커밋 실패 후) 등록된 콜백 실행
+    Hibernate post-commit 이벤트 리스너 (Integrator 로 등록)
+    - em.persist / 변경 감지 / em.remove 만 해당, JPQL 벌크 연산은 이벤트가 없다 -> TableWriteTracker 버전으로 처리
+    onWrite 는 커밋을 기다리지 않고 insert / update SQL 실행 직후(flush 시점)에 엔티티와 함께 호출한다.
+ */
+@Component
+public class EntityCommitListener implements HibernatePropertiesCustomizer, Integrator,
+        PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final Map<Class<?>, List<Runnable>> callbacks = new ConcurrentHashMap<>();
+    private final Map<Class<?>, List<Consumer<Object>>> writeCallbacks = new ConcurrentHashMap<>();
+
+    public void onCommit(Class<?> entityType, Runnable callback) {
+        callbacks.computeIfAbsent(entityType, key -> new CopyOnWriteArrayList<>()).add(callback);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> void onWrite(Class<T> entityType, Consumer<? super T> callback) {
+        writeCallbacks.computeIfAbsent(entityType, key -> new CopyOnWriteArrayList<>()).add(entity -> callback.accept((T) entity));
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(this));
+    }
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        // post-commit 리스너와 구분되도록 flush 시점 리스너는 별도 객체로 등록
+        registry.appendListeners(EventType.POST_INSERT, new PostInsertEventListener() {
+            @Override
+            public void onPostInsert(PostInsertEvent event) {
+                fireWrite(event.getPersister(), event.getEntity());
+            }
+
+            @Override
+            public boolean requiresPostCommitHandling(EntityPersister persister) {
+                return false;
+            }
+        });
+        registry.appendListeners(EventType.POST_UPDATE, new PostUpdateEventListener() {
+            @Override
+            public void onPostUpdate(PostUpdateEvent event) {
+                fireWrite(event.getPersister(), event.getEntity());
+            }
+
+            @Override
+            public boolean requiresPostCommitHandling(EntityPersister persister) {
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    // 콜백이 등록된 엔티티만 커밋 후 처리 대상으로
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return callbacks.containsKey(persister.getMappedClass());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        fire(event.getPersister());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        fire(event.getPersister());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        fire(event.getPersister());
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        fire(event.getPersister());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        fire(event.getPersister());
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        fire(event.getPersister());
+    }
+
+    private void fire(EntityPersister persister) {
+        callbacks.getOrDefault(persister.getMappedClass(), List.of()).forEach(Runnable::run);
+    }
+
+    private void fireWrite(EntityPersister persister, Object entity) {
+        writeCallbacks.getOrDefault(persister.getMappedClass(), List.of()).forEach(callback -> callback.accept(entity));
+    }
+}
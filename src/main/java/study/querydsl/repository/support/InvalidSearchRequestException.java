@@ -0,0 +1,13 @@
+package study.querydsl.repository.support;
+
+// 클라이언트가 보낸 검색 요청 값(커서, 정렬 컬럼 등)이 잘못된 경우 -> 컨트롤러에서 400 으로 응답
+// 그 밖의 IllegalArgumentException (쿼리 생성 오류 등) 은 서버 오류로 남겨둔다
+public class InvalidSearchRequestException extends IllegalArgumentException {
+    public InvalidSearchRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidSearchRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,53 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/*
+    키셋(seek) 페이징용 커서
+    정렬 기준 컬럼 + 방향 + 마지막 행의 정렬 값 + 마지막 행의 id 를 담고,
+    클라이언트에게는 base64url 로 인코딩한 불투명(opaque) 문자열로만 내려준다.
+    마지막 행의 정렬 값이 null 이면 값 자리를 아예 비운다 (빈 문자열 "" 과 구분)
+ */
+@Getter
+public final class KeysetCursor {
+    private static final String DELIMITER = ":";
+
+    private final String property;
+    private final Sort.Direction direction;
+    private final Long lastId;
+    private final String lastValue;
+
+    public KeysetCursor(String property, Sort.Direction direction, Long lastId, String lastValue) {
+        this.property = property;
+        this.direction = direction;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    public String encode() {
+        String raw = property + DELIMITER + direction.name() + DELIMITER + lastId + (lastValue == null ? "" : DELIMITER + lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            // 값(lastValue)에 구분자가 들어있을 수 있으므로 4개까지만 자른다
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(DELIMITER, 4);
+            if (parts.length >= 3) { // 3개면 lastValue 가 null
+                return new KeysetCursor(parts[0], Sort.Direction.valueOf(parts[1]), Long.valueOf(parts[2]),
+                        parts.length == 4 ? parts[3] : null);
+            }
+        } catch (IllegalArgumentException e) { // base64, 방향, 숫자 파싱 오류 모두 여기로
+            throw new InvalidSearchRequestException("Invalid cursor: " + token, e);
+        }
+        throw new InvalidSearchRequestException("Invalid cursor: " + token);
+    }
+
+    public boolean matches(String property, Sort.Direction direction) {
+        return this.property.equals(property) && this.direction == direction;
+    }
+}
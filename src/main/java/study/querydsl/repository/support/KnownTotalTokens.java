@@ -0,0 +1,110 @@
+package study.querydsl.repository.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+
+/*
+    "이미 알고 있는 전체 건수" 토큰
+    전체 건수 + 테이블 쓰기 버전을 HMAC 으로 서명해서 클라이언트에게 내려주고,
+    같은 검색 조건으로 다시 보내오면 그 사이 쓰기가 없었을 때만 카운트 쿼리 없이 그 건수를 쓴다.
+    - 서명에 검색 조건의 필드 값이 들어가므로 다른 조건에 재사용할 수 없다
+      (필드마다 길이를 앞에 붙여서 서명 -> "a, teamName=b" 같은 값으로 필드 경계를 속일 수 없다)
+    - 버전은 이 인스턴스의 TableWriteTracker 기준 (기동할 때마다 0 부터)
+      -> 기동마다 새로 만드는 instance 값도 같이 서명해서, 재시작 전이나 다른 인스턴스가 발급한 토큰은
+         버전 숫자가 우연히 같아도 받지 않는다 (그 경우는 카운트 쿼리를 실행)
+ */
+@Component
+public class KnownTotalTokens {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final TableWriteTracker tableWriteTracker;
+    private final SecretKeySpec key;
+    private final String instance = encode(randomBytes(12)); // 기동마다 새 값
+
+    public KnownTotalTokens(TableWriteTracker tableWriteTracker,
+                            @Value("${querydsl.paging.total-token.secret:}") String secret) {
+        this.tableWriteTracker = tableWriteTracker;
+        this.key = new SecretKeySpec(StringUtils.hasText(secret) ? secret.getBytes(StandardCharsets.UTF_8) : randomBytes(32), ALGORITHM);
+    }
+
+    // 카운트를 실행하기 "전"에 읽어서 issue 에 넘겨야 한다
+    public long currentVersion(String... tables) {
+        return tableWriteTracker.version(tables);
+    }
+
+    public String issue(List<?> condition, long total, long version) {
+        String payload = total + "." + version + "." + instance;
+        return encode(payload.getBytes(StandardCharsets.UTF_8)) + "." + encode(sign(payload, condition));
+    }
+
+    // 서명이 맞고 그 사이 쓰기가 없었으면 전체 건수, 아니면 null
+    public Long verify(String token, List<?> condition, String... tables) {
+        if (!StringUtils.hasText(token)) {
+            return null;
+        }
+        try {
+            String[] parts = token.split("\\.");
+            if (parts.length != 2) {
+                return null;
+            }
+            String payload = new String(Base64.getUrlDecoder().decode(parts[0]), StandardCharsets.UTF_8);
+            if (!MessageDigest.isEqual(sign(payload, condition), Base64.getUrlDecoder().decode(parts[1]))) {
+                return null;
+            }
+            String[] values = payload.split("\\.");
+            if (values.length != 3 || !instance.equals(values[2])) { // 재시작 전 / 다른 인스턴스의 토큰
+                return null;
+            }
+            long total = Long.parseLong(values[0]);
+            long version = Long.parseLong(values[1]);
+            return version == currentVersion(tables) ? total : null;
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) { // 잘못된 토큰은 없는 것으로
+            return null;
+        }
+    }
+
+    private byte[] sign(String payload, List<?> condition) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update(field(payload));
+            mac.update(field(condition.size()));
+            for (Object value : condition) {
+                mac.update(field(value));
+            }
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 길이(int) + UTF-8 값, null 은 길이 -1 (빈 문자열과 구분)
+    private static byte[] field(Object value) {
+        if (value == null) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt(-1).array();
+        }
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes).array();
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new SecureRandom().nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,39 @@
+package study.querydsl.repository.support;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    off-heap(direct) 메모리를 큰 세그먼트 단위로 할당하고 잘라서(slice) 나눠준다
+    - allocateDirect 는 느리고 메모리 예약 비용이 있으므로 작은 값마다 할당하지 않는다
+    - 해제는 GC 에 맡긴다 : 세그먼트의 모든 slice 가 참조되지 않으면 세그먼트가 해제된다
+      (캐시처럼 짧게 살다가 비슷한 시기에 버려지는 값에 적합)
+ */
+public class OffHeapSegments {
+    private final int segmentSize;
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private ByteBuffer current;
+
+    public OffHeapSegments(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public synchronized ByteBuffer allocate(int size) {
+        if (size > segmentSize / 4) { // 큰 값은 따로 할당 (세그먼트 낭비 방지)
+            allocatedBytes.addAndGet(size);
+            return ByteBuffer.allocateDirect(size);
+        }
+        if (current == null || current.remaining() < size) {
+            current = ByteBuffer.allocateDirect(segmentSize);
+            allocatedBytes.addAndGet(segmentSize);
+        }
+        ByteBuffer slice = current.slice(current.position(), size);
+        current.position(current.position() + size);
+        return slice;
+    }
+
+    // 지금까지 할당한 direct 메모리 (해제된 세그먼트 포함 누적)
+    public long allocatedBytes() {
+        return allocatedBytes.get();
+    }
+}
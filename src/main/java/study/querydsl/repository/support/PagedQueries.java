@@ -0,0 +1,79 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/*
+    페이징 전략별 실행
+    - TWO_QUERIES  : 컨텐츠 조회 후 필요할 때만 카운트 쿼리 (PageableExecutionUtils)
+    - PARALLEL_COUNT : TWO_QUERIES 와 같고, countQuery 로 이미 실행중인 카운트 결과를 기다리는 supplier 를 받는다
+    - WINDOW_COUNT : select ..., count(*) over () 한번으로 컨텐츠 + 전체 건수
+                     (빈 페이지면 전체 건수를 알 수 없으므로 카운트 쿼리로 fallback)
+ */
+public final class PagedQueries {
+    private static final NumberExpression<Long> TOTAL_OVER =
+            Expressions.numberTemplate(Long.class, WindowFunctionContributor.COUNT_OVER + "()");
+
+    private PagedQueries() {
+    }
+
+    // pagedContentQuery : 정렬 / offset / limit 까지 적용된 컨텐츠 쿼리
+    public static <T> Page<T> fetchPage(PagingStrategy strategy, JPAQuery<T> pagedContentQuery, Pageable pageable, LongSupplier countQuery) {
+        if (strategy == PagingStrategy.WINDOW_COUNT && supportsWindowCount(pagedContentQuery)) {
+            return fetchWithWindowCount(pagedContentQuery, pageable, countQuery);
+        }
+        List<T> content = pagedContentQuery.fetch();
+        return PageableExecutionUtils.getPage(content, pageable, countQuery);
+    }
+
+    private static <T> Page<T> fetchWithWindowCount(JPAQuery<T> pagedContentQuery, Pageable pageable, LongSupplier countQuery) {
+        @SuppressWarnings("unchecked")
+        Expression<T> projection = (Expression<T>) pagedContentQuery.getMetadata().getProjection();
+        List<Tuple> rows = pagedContentQuery.clone()
+                .select(projection, TOTAL_OVER)
+                .fetch();
+
+        List<T> content = rows.stream()
+                .map(row -> row.get(projection))
+                .toList();
+        if (rows.isEmpty()) {
+            long total = pageable.getOffset() == 0 ? 0 : countQuery.getAsLong(); // 마지막 페이지를 넘어간 요청
+            return new PageImpl<>(content, pageable, total);
+        }
+        return new PageImpl<>(content, pageable, rows.get(0).get(TOTAL_OVER));
+    }
+
+    // 카운트 없이 pageSize + 1 건을 읽어 다음 페이지 존재 여부만 판단 (sortedContentQuery : 정렬까지 적용된 쿼리)
+    public static <T> Slice<T> fetchSlice(JPAQuery<T> sortedContentQuery, Pageable pageable) {
+        int pageSize = pageable.getPageSize();
+        List<T> content = sortedContentQuery
+                .offset(pageable.getOffset())
+                .limit(pageSize + 1)
+                .fetch();
+
+        boolean hasNext = content.size() > pageSize;
+        if (hasNext) {
+            content = content.subList(0, pageSize);
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    // distinct / group by 가 있으면 window count 결과가 행 수와 달라지므로 기존 방식으로
+    private static boolean supportsWindowCount(JPAQuery<?> query) {
+        return query.getMetadata().getProjection() != null
+                && !query.getMetadata().isDistinct()
+                && query.getMetadata().getGroupBy().isEmpty();
+    }
+}
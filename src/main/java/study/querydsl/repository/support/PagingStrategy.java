@@ -0,0 +1,7 @@
+package study.querydsl.repository.support;
+
+public enum PagingStrategy {
+    TWO_QUERIES,  // 컨텐츠 쿼리 + 카운트 쿼리 (기본)
+    WINDOW_COUNT, // count(*) over () 로 컨텐츠와 전체 건수를 한번에 조회
+    PARALLEL_COUNT // 카운트 쿼리를 별도 커넥션에서 컨텐츠 쿼리와 동시에 실행 (ParallelCountExecutor)
+}
@@ -0,0 +1,114 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/*
+    카운트 쿼리를 별도 EntityManager(별도 커넥션)에서 컨텐츠 쿼리와 동시에 실행
+    - 스레드 수는 커넥션 풀 크기의 절반을 넘지 않는다 (요청 스레드 + 카운트 스레드 = 커넥션 2개)
+    - 큐 없이(SynchronousQueue) 바로 실행할 스레드가 없거나 풀에 놀고 있는 커넥션이 없으면 순차 실행으로 fallback
+    - 카운트는 별도 트랜잭션이므로 커밋된 데이터만 보인다
+ */
+@Component
+public class ParallelCountExecutor {
+    private final EntityManagerFactory emf;
+    private final HikariDataSource hikariDataSource; // 풀 상태 확인용 (Hikari 가 아니면 null)
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    public ParallelCountExecutor(EntityManagerFactory emf, DataSource dataSource,
+                                 @Value("${querydsl.paging.parallel-count.threads:4}") int threads,
+                                 @Value("${querydsl.paging.parallel-count.timeout-millis:10000}") long timeoutMillis) {
+        this.emf = emf;
+        this.hikariDataSource = unwrapHikari(dataSource);
+        this.timeoutMillis = timeoutMillis;
+
+        int poolThreads = threads;
+        if (hikariDataSource != null) {
+            poolThreads = Math.min(threads, hikariDataSource.getMaximumPoolSize() / 2);
+        }
+        poolThreads = Math.max(1, poolThreads);
+        this.executor = new ThreadPoolExecutor(poolThreads, poolThreads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), new CustomizableThreadFactory("parallel-count-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // 바로 실행을 시작하고, 결과는 반환된 supplier 를 호출할 때 기다린다
+    public LongSupplier submit(JPAQuery<Long> countQuery) {
+        if (!hasIdleConnection()) {
+            return countQuery::fetchOne;
+        }
+        Future<Long> future;
+        try {
+            future = executor.submit(() -> {
+                EntityManager countEm = emf.createEntityManager();
+                try {
+                    return countQuery.clone(countEm).fetchOne();
+                } finally {
+                    countEm.close();
+                }
+            });
+        } catch (RejectedExecutionException e) { // 카운트 스레드가 모두 사용중
+            return countQuery::fetchOne;
+        }
+        return () -> await(future);
+    }
+
+    private long await(Future<Long> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for count query", e);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new IllegalStateException("Count query timed out after " + timeoutMillis + "ms", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Count query failed", e.getCause());
+        }
+    }
+
+    private boolean hasIdleConnection() {
+        if (hikariDataSource == null) {
+            return true;
+        }
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        return pool == null || pool.getIdleConnections() > 0; // 풀이 아직 시작 전이면 null
+    }
+
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
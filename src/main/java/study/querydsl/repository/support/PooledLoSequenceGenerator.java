@@ -0,0 +1,34 @@
+package study.querydsl.repository.support;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/*
+    pooled-lo 시퀀스 id 생성기 (엔티티에서 @GenericGenerator 로 지정)
+    시퀀스를 한번 읽으면 [값, 값 + allocationSize) 구간을 메모리에서 나눠준다
+    - 시퀀스 자체가 allocationSize 씩 증가하므로 여러 스레드 / 여러 인스턴스 / 재시작 후에도 구간이 겹치지 않는다
+      (재시작하면 쓰지 않은 나머지 구간은 건너뛴다)
+    - insert 마다 시퀀스 왕복이 없어서 JDBC batch 가 끊기지 않는다
+    allocationSize : spring.jpa.properties.querydsl.id.allocation_size (기본 1000)
+    이미 만들어진 시퀀스의 increment 와 다르면 시퀀스도 같이 바꿔야 한다 (alter sequence ... increment by)
+ */
+public class PooledLoSequenceGenerator extends SequenceStyleGenerator {
+    public static final String ALLOCATION_SIZE = "querydsl.id.allocation_size";
+    private static final int DEFAULT_ALLOCATION_SIZE = 1000;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE,
+                serviceRegistry.getService(ConfigurationService.class).getSettings(), DEFAULT_ALLOCATION_SIZE);
+        parameters.put(INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.put(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -20,6 +20,7 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 @Repository
 public abstract class Querydsl4RepositorySupport {
@@ -27,6 +28,8 @@ public abstract class Querydsl4RepositorySupport {
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private ParallelCountExecutor parallelCountExecutor;
+    private ReadOnlyQueries readOnlyQueries;
 
     public Querydsl4RepositorySupport(Class<?> domainClass) {
         Assert.notNull(domainClass, "Domain class must not be null!");
@@ -44,6 +47,16 @@ public abstract class Querydsl4RepositorySupport {
         this.queryFactory = new JPAQueryFactory(entityManager);
     }
 
+    @Autowired
+    public void setParallelCountExecutor(ParallelCountExecutor parallelCountExecutor) {
+        this.parallelCountExecutor = parallelCountExecutor;
+    }
+
+    @Autowired
+    public void setReadOnlyQueries(ReadOnlyQueries readOnlyQueries) {
+        this.readOnlyQueries = readOnlyQueries;
+    }
+
     @PostConstruct
     public void validate() {
         Assert.notNull(entityManager, "EntityManager must not be null!");
@@ -63,24 +76,58 @@ public abstract class Querydsl4RepositorySupport {
         return entityManager;
     }
 
+    // 조회 힌트 (fetch size, 읽기 전용 트랜잭션이면 read-only + FlushMode.MANUAL) -> ReadOnlyQueries
     protected <T> JPAQuery<T> select(Expression<T> expr) {
-        return getQueryFactory().select(expr);
+        return readOnlyQueries.apply(getQueryFactory().select(expr));
     }
 
     protected <T> JPAQuery<T> selectFrom(EntityPath<T> from) {
-        return getQueryFactory().selectFrom(from);
+        return readOnlyQueries.apply(getQueryFactory().selectFrom(from));
     }
 
+    // 카운트 쿼리는 컨텐츠 쿼리 메타데이터에서 정렬/프로젝션/fetch join/불필요한 left join 을 걷어내고 만든다
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        return applyPagination(pageable, PagingStrategy.TWO_QUERIES, contentQuery);
+    }
+
+    // WINDOW_COUNT 는 컨텐츠와 전체 건수를 한 쿼리로 가져온다 (호출마다 선택 가능)
+    protected <T> Page<T> applyPagination(Pageable pageable, PagingStrategy strategy, Function<JPAQueryFactory, JPAQuery> contentQuery) {
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
-        List<T> content = getQuerydsl().applyPagination(pageable, jpaQuery).fetch();
-        return PageableExecutionUtils.getPage(content, pageable, jpaQuery::fetchCount);
+        readOnly(jpaQuery);
+        getQuerydsl().applyPagination(pageable, jpaQuery);
+        LongSupplier countQuery = countSupplier(strategy, jpaQuery); // PARALLEL_COUNT 면 여기서 카운트 실행 시작
+        return PagedQueries.fetchPage(strategy, jpaQuery, pageable, countQuery);
     }
 
-    protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery, Function<J달AQueryFactory, JPAQuery> countQuery) {
+    private LongSupplier countSupplier(PagingStrategy strategy, JPAQuery<?> contentQuery) {
+        if (strategy == PagingStrategy.PARALLEL_COUNT && contentQuery.getMetadata().getGroupBy().isEmpty()) {
+            return parallelCountExecutor.submit(countQuery(contentQuery));
+        }
+        return () -> fetchCount(contentQuery);
+    }
+
+    // 새로 만든 count 쿼리에는 컨텐츠 쿼리의 힌트가 없으므로 다시 넣는다 (group by 는 힌트를 그대로 가져가는 clone 으로 센다)
+    private long fetchCount(JPAQuery<?> query) {
+        if (!query.getMetadata().getGroupBy().isEmpty()) {
+            return CountQueries.fetchCount(query, getEntityManager());
+        }
+        return countQuery(query).fetchOne();
+    }
+
+    private JPAQuery<Long> countQuery(JPAQuery<?> query) {
+        return readOnlyQueries.apply(CountQueries.countQuery(query, getEntityManager()));
+    }
+
+    protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory, JPAQuery> countQuery) {
         JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+        readOnly(jpaContentQuery);
         List<T> content = getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch();
         JPAQuery countResult = countQuery.apply(getQueryFactory());
-        return PageableExecutionUtils.getPage(content, pageable, countResult::fetchCount);
+        readOnly(countResult);
+        return PageableExecutionUtils.getPage(content, pageable, () -> fetchCount(countResult));
+    }
+
+    private void readOnly(JPAQuery<?> query) {
+        readOnlyQueries.apply(query);
     }
 }
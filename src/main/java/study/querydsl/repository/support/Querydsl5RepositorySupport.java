@@ -10,6 +10,7 @@ import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
@@ -20,6 +21,7 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 @Repository
 public abstract class Querydsl5RepositorySupport {
@@ -28,6 +30,8 @@ public abstract class Querydsl5RepositorySupport {
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private ParallelCountExecutor parallelCountExecutor;
+    private ReadOnlyQueries readOnlyQueries;
 
     public Querydsl5RepositorySupport(Class<?> domainClass) {
         this.domainClass = domainClass;
@@ -43,6 +47,16 @@ public abstract class Querydsl5RepositorySupport {
         this.queryFactory = new JPAQueryFactory(entityManager);
     }
 
+    @Autowired
+    public void setParallelCountExecutor(ParallelCountExecutor parallelCountExecutor) {
+        this.parallelCountExecutor = parallelCountExecutor;
+    }
+
+    @Autowired
+    public void setReadOnlyQueries(ReadOnlyQueries readOnlyQueries) {
+        this.readOnlyQueries = readOnlyQueries;
+    }
+
     @PostConstruct
     public void validate(){
 
@@ -60,24 +74,66 @@ public abstract class Querydsl5RepositorySupport {
         return entityManager;
     }
 
+    // 조회 힌트 (fetch size, 읽기 전용 트랜잭션이면 read-only + FlushMode.MANUAL) -> ReadOnlyQueries
     protected <T> JPAQuery<T> select(Expression<T> expr) {
-        return getQueryFactory().select(expr);
+        return readOnlyQueries.apply(getQueryFactory().select(expr));
     }
 
     protected <T> JPAQuery<T> selectFrom(EntityPath<T> from) {
-        return getQueryFactory().selectFrom(from);
+        return readOnlyQueries.apply(getQueryFactory().selectFrom(from));
     }
 
+    // 카운트 쿼리를 따로 작성하지 않아도 컨텐츠 쿼리 메타데이터에서 count(id) 쿼리를 만들어 사용
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        return applyPagination(pageable, PagingStrategy.TWO_QUERIES, contentQuery);
+    }
+
+    // WINDOW_COUNT 는 컨텐츠와 전체 건수를 한 쿼리로 가져온다 (호출마다 선택 가능)
+    protected <T> Page<T> applyPagination(Pageable pageable, PagingStrategy strategy, Function<JPAQueryFactory, JPAQuery> contentQuery) {
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
-        List<T> content = getQuerydsl().applyPagination(pageable, jpaQuery).fetch();
-        return PageableExecutionUtils.getPage(content, pageable, jpaQuery::fetchCount);
+        readOnly(jpaQuery);
+        getQuerydsl().applyPagination(pageable, jpaQuery);
+        LongSupplier total = countSupplier(strategy, jpaQuery); // PARALLEL_COUNT 면 여기서 카운트 실행 시작
+        return PagedQueries.fetchPage(strategy, jpaQuery, pageable, total);
+    }
+
+    // group by 쿼리는 count(id) 로 줄일 수 없으므로 CountQueries.fetchCount 로 (Querydsl4RepositorySupport 와 같은 동작)
+    private LongSupplier countSupplier(PagingStrategy strategy, JPAQuery<?> contentQuery) {
+        if (strategy == PagingStrategy.PARALLEL_COUNT && contentQuery.getMetadata().getGroupBy().isEmpty()) {
+            return parallelCountExecutor.submit(countQuery(contentQuery));
+        }
+        return () -> fetchCount(contentQuery);
+    }
+
+    // 새로 만든 count 쿼리에는 컨텐츠 쿼리의 힌트가 없으므로 다시 넣는다 (group by 는 힌트를 그대로 가져가는 clone 으로 센다)
+    private long fetchCount(JPAQuery<?> query) {
+        if (!query.getMetadata().getGroupBy().isEmpty()) {
+            return CountQueries.fetchCount(query, getEntityManager());
+        }
+        return countQuery(query).fetchOne();
+    }
+
+    private JPAQuery<Long> countQuery(JPAQuery<?> query) {
+        return readOnlyQueries.apply(CountQueries.countQuery(query, getEntityManager()));
     }
 
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory, JPAQuery<Long>> countQuery) {
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        readOnly(jpaQuery);
         List<T> content = getQuerydsl().applyPagination(pageable, jpaQuery).fetch();
-        JPAQuery<Long> countResult = countQuery.apply(getQueryFactory());
+        JPAQuery<Long> countResult = readOnlyQueries.apply(countQuery.apply(getQueryFactory()));
         return PageableExecutionUtils.getPage(content, pageable, countResult::fetchOne);
     }
+
+    // 무한 스크롤용 : 카운트 쿼리 없이 limit + 1 로 다음 페이지 존재 여부만 확인
+    protected <T> Slice<T> applySlicing(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        readOnly(jpaQuery);
+        getQuerydsl().applySorting(pageable.getSort(), jpaQuery);
+        return PagedQueries.fetchSlice(jpaQuery, pageable);
+    }
+
+    private void readOnly(JPAQuery<?> query) {
+        readOnlyQueries.apply(query);
+    }
 }
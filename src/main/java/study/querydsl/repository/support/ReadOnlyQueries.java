@@ -0,0 +1,51 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.Query;
+import org.hibernate.FlushMode;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.BiConsumer;
+
+/*
+    조회 쿼리 공통 힌트 (검색 리파지토리는 @Transactional(readOnly = true) 와 같이 사용)
+    - fetch size : 항상
+    - 읽기 전용 엔티티(스냅샷 없음) + FlushMode.MANUAL(쿼리 전 auto flush 생략) :
+      읽기 전용 트랜잭션이거나 트랜잭션이 없을 때만
+      읽기/쓰기 트랜잭션에 참여한 경우에는 넣지 않는다
+      (flush 안된 변경이 조회에 안보이거나, 조회한 엔티티의 수정이 무시되면 안되므로)
+ */
+@Component
+public class ReadOnlyQueries {
+    private final int fetchSize;
+
+    public ReadOnlyQueries(@Value("${querydsl.read-only.fetch-size:100}") int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public <Q extends JPAQuery<?>> Q apply(Q query) {
+        setHints(query::setHint);
+        return query;
+    }
+
+    public <Q extends Query> Q apply(Q query) {
+        setHints(query::setHint);
+        return query;
+    }
+
+    private void setHints(BiConsumer<String, Object> hints) {
+        hints.accept(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        if (isReadOnlyScope()) {
+            hints.accept(HibernateHints.HINT_READ_ONLY, true);
+            hints.accept(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL);
+        }
+    }
+
+    static boolean isReadOnlyScope() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
@@ -0,0 +1,17 @@
+package study.querydsl.repository.support;
+
+import lombok.Data;
+
+// Hibernate 2차 캐시 리전 통계 (hibernate.generate_statistics 가 켜져 있어야 값이 쌓인다)
+@Data
+public class RegionCacheStats {
+    private final String region;
+    private final long hits;
+    private final long misses;
+    private final long puts;
+
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
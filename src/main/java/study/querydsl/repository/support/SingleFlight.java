@@ -0,0 +1,100 @@
+package study.querydsl.repository.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/*
+    같은 키로 동시에 들어온 요청은 한번만 실행하고 결과(또는 예외)를 같이 받는다 (single flight)
+    - 먼저 온 요청(leader)이 putIfAbsent 로 future 를 등록하고 직접 실행, 나머지는 그 future 를 기다린다 (락 없음)
+    - 실행이 끝나면 바로 제거하므로 결과를 캐시하지는 않는다 (끝난 뒤에 온 요청은 새로 실행)
+    - 기다리는 쪽은 timeoutMillis 까지만 기다린다 (leader 는 제한 없음)
+    - shareable 이 false 인 결과(예: leader 트랜잭션의 커밋 전 데이터가 섞인 결과)는 leader 만 받고,
+      기다리던 요청은 각자 loader 를 직접 실행한다
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public SingleFlight(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        return execute(key, loader, value -> true);
+    }
+
+    public V execute(K key, Supplier<V> loader, Predicate<V> shareable) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            try {
+                return await(running);
+            } catch (NotShared e) { // leader 의 결과를 나눠 받을 수 없음 -> 직접 실행
+                return loader.get();
+            }
+        }
+        executions.incrementAndGet();
+        try {
+            V value = loader.get();
+            if (shareable.test(value)) {
+                flight.complete(value);
+            } else {
+                flight.completeExceptionally(NotShared.INSTANCE);
+            }
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e); // 기다리던 요청들도 같은 예외
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private V await(CompletableFuture<V> running) {
+        try {
+            return running.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight query", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("In-flight query did not finish within " + timeoutMillis + "ms", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("In-flight query failed", e.getCause());
+        }
+    }
+
+    private static final class NotShared extends RuntimeException {
+        static final NotShared INSTANCE = new NotShared();
+
+        private NotShared() {
+            super(null, null, false, false);
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    public long executions() {
+        return executions.get();
+    }
+
+    public long coalesced() {
+        return coalesced.get();
+    }
+}
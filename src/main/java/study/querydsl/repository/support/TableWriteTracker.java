@@ -0,0 +1,155 @@
+package study.querydsl.repository.support;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+    테이블별 쓰기 버전
+    Hibernate 가 실행하는 insert / update / delete SQL 을 StatementInspector 로 보고 해당 테이블의 버전을 올린다.
+    - em.persist / dirty checking 뿐 아니라 querydsl update().execute() 같은 벌크 연산도 잡힌다
+    - 실행 시점에 한번, 트랜잭션 종료(커밋/롤백) 시점에 한번 더 올린다
+      (커밋 전에 다른 스레드가 이전 데이터로 계산한 값을 새 버전으로 캐시하는 경우 방지)
+    캐시는 값을 만들 때의 버전을 같이 저장해두고, 버전이 바뀌었으면 버린다.
+ */
+@Component
+public class TableWriteTracker implements StatementInspector, HibernatePropertiesCustomizer {
+    private static final Pattern LEADING_COMMENT = Pattern.compile("^\\s*/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern WRITE_STATEMENT = Pattern.compile(
+            "^\\s*(?:insert\\s+into|update|delete\\s+from|delete|merge\\s+into)\\s+([\\w.\"]+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<String, List<Consumer<String>>> statementListeners = new ConcurrentHashMap<>();
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        String table = writtenTable(sql);
+        if (table != null) {
+            bump(table);
+            bumpAfterCompletion(table);
+            statementListeners.getOrDefault(table, List.of()).forEach(listener -> listener.accept(sql));
+        }
+        return sql;
+    }
+
+    // table 에 쓰는 SQL 을 실행 직전에 받는다 (벌크 연산처럼 엔티티 이벤트가 없는 쓰기를 보기 위해)
+    public void onStatement(String table, Consumer<String> listener) {
+        statementListeners.computeIfAbsent(table, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    public long version(String table) {
+        AtomicLong version = versions.get(table);
+        return version == null ? 0 : version.get();
+    }
+
+    // 여러 테이블을 조인한 결과의 버전 (어느 한 테이블이라도 바뀌면 달라진다)
+    public long version(String... tables) {
+        long sum = 0;
+        for (String table : tables) {
+            sum += version(table);
+        }
+        return sum;
+    }
+
+    // 현재 트랜잭션에서 아직 커밋되지 않은 쓰기가 있는지 (있으면 그 결과를 다른 스레드와 공유하는 캐시에 넣으면 안된다)
+    public boolean hasUncommittedWrites(String... tables) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            return false;
+        }
+        for (String table : tables) {
+            if (pending.contains(table)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void bump(String table) {
+        versions.computeIfAbsent(table, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /*
+        트랜잭션마다 synchronization 하나 (쓴 테이블 목록은 트랜잭션 리소스로 바인딩)
+        REQUIRES_NEW 로 바깥 트랜잭션이 정지되면 목록도 같이 풀어두고(suspend) 재개될 때 다시 바인딩한다(resume)
+        -> 안쪽 트랜잭션은 자기 목록 / synchronization 을 새로 만들고, 자기 커밋 시점에 버전을 올린다
+     */
+    private void bumpAfterCompletion(String table) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new PendingTables(pending));
+        }
+        pending.add(table);
+    }
+
+    private class PendingTables implements TransactionSynchronization {
+        private final Set<String> tables;
+
+        PendingTables(Set<String> tables) {
+            this.tables = tables;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TableWriteTracker.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(TableWriteTracker.this, tables);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TableWriteTracker.this);
+            tables.forEach(TableWriteTracker.this::bump);
+        }
+    }
+
+    static String writtenTable(String sql) {
+        String statement = sql;
+        Matcher comment = LEADING_COMMENT.matcher(statement);
+        while (comment.find()) { // use_sql_comments 로 붙는 /* ... */ 제거
+            statement = statement.substring(comment.end());
+            comment = LEADING_COMMENT.matcher(statement);
+        }
+        Matcher matcher = WRITE_STATEMENT.matcher(statement);
+        if (!matcher.find()) {
+            return null;
+        }
+        String table = matcher.group(1).replace("\"", "").toLowerCase(Locale.ROOT);
+        int schemaDot = table.lastIndexOf('.');
+        return schemaDot < 0 ? table : table.substring(schemaDot + 1);
+    }
+}
@@ -0,0 +1,106 @@
+package study.querydsl.repository.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/*
+    크기 제한(LRU) + TTL + 쓰기 버전 검증 캐시
+    값을 만들기 전에 읽은 버전을 같이 저장하고, 조회 시 현재 버전과 다르면 미스로 처리한다.
+    (버전은 TableWriteTracker 가 관리하는 테이블 쓰기 버전)
+ */
+public class VersionedCache<K, V> {
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public VersionedCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) { // access order -> LRU
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                boolean evict = size() > VersionedCache.this.maxSize;
+                if (evict) {
+                    evictions.incrementAndGet();
+                }
+                return evict;
+            }
+        };
+    }
+
+    // 없거나, 만료됐거나, 버전이 바뀌었으면 null
+    public V get(K key, long currentVersion) {
+        Entry<V> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && (entry.version != currentVersion || entry.isExpired())) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    // version 은 값을 계산하기 "전"에 읽은 버전이어야 한다
+    public void put(K key, long version, V value) {
+        if (maxSize <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, version, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    public V get(K key, LongSupplier version, Supplier<V> loader) {
+        long versionBeforeLoad = version.getAsLong();
+        V cached = get(key, versionBeforeLoad);
+        if (cached != null) {
+            return cached;
+        }
+        V loaded = loader.get();
+        put(key, versionBeforeLoad, loaded);
+        return loaded;
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), size);
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long version;
+        private final long expiresAt;
+
+        private Entry(V value, long version, long expiresAt) {
+            this.value = value;
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package study.querydsl.repository.support;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.function.StandardSQLFunction;
+import org.hibernate.sql.ast.SqlAstTranslator;
+import org.hibernate.sql.ast.spi.SqlAppender;
+import org.hibernate.sql.ast.tree.SqlAstNode;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.util.List;
+
+/*
+    JPQL 에서 count_over() 를 쓰면 SQL 로 count(*) over () 가 나가도록 함수 등록
+    META-INF/services/org.hibernate.boot.model.FunctionContributor 로 Hibernate 가 ServiceLoader 로 찾는다
+ */
+public class WindowFunctionContributor implements FunctionContributor {
+    public static final String COUNT_OVER = "count_over";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry().register(COUNT_OVER, new StandardSQLFunction(COUNT_OVER, StandardBasicTypes.LONG) {
+            @Override
+            public void render(SqlAppender sqlAppender, List<? extends SqlAstNode> sqlAstArguments, SqlAstTranslator<?> walker) {
+                sqlAppender.appendSql("count(*) over ()");
+            }
+        });
+    }
+}
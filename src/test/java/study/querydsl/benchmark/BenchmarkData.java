@@ -0,0 +1,65 @@
+package study.querydsl.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    벤치마크용 대량 데이터 (JDBC batch insert 로 직접 넣는다)
+    id 는 시퀀스와 겹치지 않도록 ID_BASE 부터 사용하고, 끝나면 그 구간만 지운다.
+ */
+class BenchmarkData {
+    static final long ID_BASE = 1_000_000_000L;
+    private static final int BATCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    BenchmarkData(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    static int rows(int defaultRows) {
+        return Integer.getInteger("benchmark.rows", defaultRows);
+    }
+
+    // team 은 teams 개, member 는 rows 개 (age = i % 100, team = i % teams)
+    void insert(int rows, int teams) {
+        List<Object[]> teamArgs = new ArrayList<>();
+        for (int t = 0; t < teams; t++) {
+            teamArgs.add(new Object[]{ID_BASE + t, "benchTeam" + t});
+        }
+        jdbcTemplate.batchUpdate("insert into team (team_id, name) values (?, ?)", teamArgs);
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{ID_BASE + i, "benchMember" + i, i % 100, ID_BASE + (i % teams)});
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", batch);
+        }
+    }
+
+    void delete() {
+        jdbcTemplate.update("delete from member where member_id >= ?", ID_BASE);
+        jdbcTemplate.update("delete from team where team_id >= ?", ID_BASE);
+    }
+
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    static long settledHeap() {
+        System.gc();
+        return usedHeap();
+    }
+
+    static String mb(long bytes) {
+        return (bytes / (1024 * 1024)) + "MB";
+    }
+}
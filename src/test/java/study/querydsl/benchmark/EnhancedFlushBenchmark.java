@@ -0,0 +1,85 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import java.util.List;
+
+/*
+    영속성 컨텍스트에 Member 를 rows 개 올려두고 1% 만 수정한 뒤 flush 시간
+    바이트코드 향상(dirty tracking) 이면 변경된 엔티티의 기록만 보고, 아니면 rows 개 전부 스냅샷과 비교한다.
+    비교하려면 build.gradle 의 enableDirtyTracking 을 끄고 한번 더 실행
+    ./gradlew test --tests '*EnhancedFlushBenchmark' -Dbenchmark=true -Dbenchmark.rows=100000
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = {"logging.level.org.hibernate.SQL=info", "logging.level.org.hibernate.type=info",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=100"})
+class EnhancedFlushBenchmark {
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    BenchmarkData data;
+    int rows;
+
+    @BeforeAll
+    void setUp() {
+        data = new BenchmarkData(jdbcTemplate);
+        rows = BenchmarkData.rows(100_000);
+        data.insert(rows, 10);
+    }
+
+    @AfterAll
+    void tearDown() {
+        data.delete();
+    }
+
+    @Test
+    void flushOnePercentOfManagedMembers() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        for (int round = 1; round <= ROUNDS; round++) {
+            int currentRound = round;
+            tx.executeWithoutResult(status -> {
+                List<Member> members = em.createQuery("select m from Member m where m.id >= :base", Member.class)
+                        .setParameter("base", BenchmarkData.ID_BASE)
+                        .getResultList();
+                boolean enhanced = !members.isEmpty() && members.get(0) instanceof SelfDirtinessTracker;
+
+                long start = System.nanoTime();
+                em.flush(); // 변경 없음
+                long cleanMicros = (System.nanoTime() - start) / 1_000;
+
+                int modified = 0;
+                for (int i = 0; i < members.size(); i += 100) {
+                    Member member = members.get(i);
+                    member.setAge(member.getAge() + 1);
+                    modified++;
+                }
+                start = System.nanoTime();
+                em.flush();
+                long dirtyMicros = (System.nanoTime() - start) / 1_000;
+
+                System.out.printf("[flush] round %d managed=%d enhanced=%s | no changes: %dus | %d modified: %dus%n",
+                        currentRound, members.size(), enhanced, cleanMicros, modified, dirtyMicros);
+                status.setRollbackOnly(); // 다음 라운드도 같은 데이터로
+            });
+        }
+    }
+}
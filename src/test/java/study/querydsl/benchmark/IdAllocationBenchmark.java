@@ -0,0 +1,63 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.dto.SeedReport;
+import study.querydsl.repository.MemberSeeder;
+
+/*
+    id 할당 크기별 insert 처리량 (MemberSeeder 로 적재)
+    - allocation_size 50 : 기존 @GeneratedValue 기본값 (시퀀스 증가 50) 과 같은 시퀀스 왕복 수
+    - allocation_size 1000 : 현재 설정
+    할당 크기는 기동시 정해지므로 설정마다 컨텍스트를 따로 띄운다 (각각 스키마를 새로 만든다)
+    ./gradlew test --tests '*IdAllocationBenchmark*' -Dbenchmark=true -Dbenchmark.rows=1000000 -Dbenchmark.threads=4
+ */
+abstract class IdAllocationBenchmark {
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    MemberSeeder memberSeeder;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void seed() {
+        int rows = BenchmarkData.rows(200_000);
+        int threads = Integer.getInteger("benchmark.threads", 4);
+        Object allocationSize = emf.getProperties().get("querydsl.id.allocation_size");
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        for (int round = 1; round <= ROUNDS; round++) {
+            long lastMemberId = jdbcTemplate.queryForObject("select coalesce(max(member_id), 0) from member", Long.class);
+            long lastTeamId = jdbcTemplate.queryForObject("select coalesce(max(team_id), 0) from team", Long.class);
+            statistics.clear();
+
+            SeedReport report = memberSeeder.seed(rows, 10, threads);
+
+            System.out.printf("[id-allocation] allocation_size=%s round %d: %d rows, %d thread(s), %dms, %.0f rows/sec, %d statements%n",
+                    allocationSize, round, report.getRows(), report.getThreads(), report.getMillis(),
+                    report.getRowsPerSecond(), statistics.getPrepareStatementCount());
+            jdbcTemplate.update("delete from member where member_id > ?", lastMemberId);
+            jdbcTemplate.update("delete from team where team_id > ?", lastTeamId);
+        }
+    }
+
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @SpringBootTest(properties = {"logging.level.org.hibernate.SQL=info", "logging.level.org.hibernate.type=info",
+            "spring.jpa.properties.querydsl.id.allocation_size=50"})
+    static class DefaultIncrement extends IdAllocationBenchmark {
+    }
+
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @SpringBootTest(properties = {"logging.level.org.hibernate.SQL=info", "logging.level.org.hibernate.type=info",
+            "spring.jpa.properties.querydsl.id.allocation_size=1000"})
+    static class PooledLo extends IdAllocationBenchmark {
+    }
+}
@@ -0,0 +1,26 @@
+package study.querydsl.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+    JMH 벤치마크 실행 (*Jmh 클래스)
+    ./gradlew test --tests '*JmhBenchmarks' -Dbenchmark=true [-Dbenchmark.jmh=MemberSearchShapeJmh]
+    Spring 컨텍스트를 벤치마크 안에서 띄우므로 fork 없이 테스트 JVM 에서 실행한다.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JmhBenchmarks {
+
+    @Test
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(System.getProperty("benchmark.jmh", "study\\.querydsl\\.benchmark\\..*Jmh"))
+                .forks(0)
+                .shouldFailOnError(true)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,82 @@
+package study.querydsl.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    findAll_Querydsl (영속성 컨텍스트에 전부 로딩 + 커밋시 flush) vs findAllInChunks (StatelessSession)
+    ./gradlew test --tests '*MemberBulkReadBenchmark' -Dbenchmark=true -Dbenchmark.rows=1000000
+    (100만건 findAll 은 힙이 1GB 이상 필요할 수 있다 -> org.gradle.jvmargs / test maxHeapSize 조정)
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = {"logging.level.org.hibernate.SQL=info", "logging.level.org.hibernate.type=info"})
+class MemberBulkReadBenchmark {
+    private static final int CHUNK_SIZE = 1_000;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    BenchmarkData data;
+    int rows;
+
+    @BeforeAll
+    void setUp() {
+        data = new BenchmarkData(jdbcTemplate);
+        rows = BenchmarkData.rows(1_000_000);
+        data.insert(rows, 10);
+    }
+
+    @AfterAll
+    void tearDown() {
+        data.delete();
+    }
+
+    @Test
+    void findAllVsFindAllInChunks() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        for (int round = 1; round <= ROUNDS; round++) {
+            long baseline = BenchmarkData.settledHeap();
+            long start = System.nanoTime();
+            long[] loaded = new long[2];
+            tx.executeWithoutResult(status -> {
+                List<Member> members = memberJpaRepository.findAll_Querydsl();
+                loaded[0] = members.size();
+                loaded[1] = BenchmarkData.usedHeap() - baseline; // 커밋(flush) 직전, 전부 올라온 상태
+            });
+            long findAllMillis = (System.nanoTime() - start) / 1_000_000;
+
+            baseline = BenchmarkData.settledHeap();
+            AtomicLong streamed = new AtomicLong();
+            AtomicLong peak = new AtomicLong();
+            start = System.nanoTime();
+            tx.executeWithoutResult(status -> memberJpaRepository.findAllInChunks(CHUNK_SIZE, chunk -> {
+                streamed.addAndGet(chunk.size());
+                peak.accumulateAndGet(BenchmarkData.usedHeap(), Math::max);
+            }));
+            long chunkMillis = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.printf("[bulk-read] round %d rows=%d | findAll_Querydsl: %d rows %dms heap+%s | findAllInChunks(%d): %d rows %dms heap+%s%n",
+                    round, rows, loaded[0], findAllMillis, BenchmarkData.mb(loaded[1]),
+                    CHUNK_SIZE, streamed.get(), chunkMillis, BenchmarkData.mb(Math.max(0, peak.get() - baseline)));
+        }
+    }
+}
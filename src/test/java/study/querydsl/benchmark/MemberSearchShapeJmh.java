@@ -0,0 +1,126 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StringUtils;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.MemberSearchQueries;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/*
+    검색 쿼리 : 매번 querydsl 로 만들고 직렬화 vs where 절 모양별로 미리 직렬화한 JPQL 에 값만 바인딩 (MemberSearchQueries)
+    shape 는 usernameEq / teamNameEq / ageGoe / ageLoe 비트 조합 (0 = 조건 없음, 15 = 전부)
+    *Serialize 는 DB 왕복 없이 쿼리 생성 비용만 비교
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MemberSearchShapeJmh {
+
+    @Param({"0", "5", "15"})
+    int shape;
+
+    ConfigurableApplicationContext context;
+    EntityManager em;
+    MemberSearchQueries memberSearchQueries;
+    BenchmarkData data;
+    MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.org.hibernate.SQL=info", "logging.level.org.hibernate.type=info")
+                .run();
+        em = context.getBean(EntityManager.class);
+        memberSearchQueries = context.getBean(MemberSearchQueries.class);
+        data = new BenchmarkData(context.getBean(JdbcTemplate.class));
+        data.insert(BenchmarkData.rows(10_000), 10);
+
+        condition = new MemberSearchCondition();
+        if ((shape & 1) != 0) {
+            condition.setUsername("benchMember42");
+        }
+        if ((shape & 2) != 0) {
+            condition.setTeamName("benchTeam2");
+        }
+        if ((shape & 4) != 0) {
+            condition.setAgeGoe(10);
+        }
+        if ((shape & 8) != 0) {
+            condition.setAgeLoe(90);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.delete();
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> perCallQuerydsl() {
+        return perCallQuery().fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> shapeCached() {
+        return memberSearchQueries.fetch(condition, List.of(member.id.asc()), 0L, 20);
+    }
+
+    @Benchmark
+    public String perCallSerialize() {
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em));
+        serializer.serialize(perCallQuery().getMetadata(), false, null);
+        return serializer.toString();
+    }
+
+    // 기존 MemberRepositoryImpl.searchPageComplex 와 같은 방식
+    private JPAQuery<MemberTeamDto> perCallQuery() {
+        return new JPAQueryFactory(em)
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(StringUtils.hasText(condition.getUsername()) ? member.username.eq(condition.getUsername()) : null,
+                        StringUtils.hasText(condition.getTeamName()) ? team.name.eq(condition.getTeamName()) : null,
+                        condition.getAgeGoe() != null ? member.age.goe(condition.getAgeGoe()) : null,
+                        condition.getAgeLoe() != null ? member.age.loe(condition.getAgeLoe()) : null)
+                .orderBy(member.id.asc())
+                .offset(0)
+                .limit(20);
+    }
+}
@@ -0,0 +1,89 @@
+package study.querydsl.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberTeamDtoCodec;
+import study.querydsl.repository.support.OffHeapSegments;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    검색 결과 캐시 값 : 힙의 List<MemberTeamDto> vs off-heap 인코딩 (MemberTeamDtoCodec)
+    캐시에 1000만 행(페이지 20행)을 올려두고 힙 사용량과 full GC 시간(캐시를 계속 추적해야 하는 비용)을 비교한다.
+    ./gradlew test --tests '*OffHeapSearchCacheBenchmark' -Dbenchmark=true -Dbenchmark.rows=10000000
+    (힙 방식은 1000만 행에 2GB 이상 필요 -> test maxHeapSize, off-heap 은 -XX:MaxDirectMemorySize 도 확인)
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OffHeapSearchCacheBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final int TEAMS = 10;
+    private static final int GC_ROUNDS = 3;
+
+    @Test
+    void heapVsOffHeap() {
+        int rows = BenchmarkData.rows(10_000_000);
+
+        long baseline = BenchmarkData.settledHeap();
+        List<List<MemberTeamDto>> heapPages = new ArrayList<>();
+        for (int start = 0; start < rows; start += PAGE_SIZE) {
+            heapPages.add(page(start, Math.min(PAGE_SIZE, rows - start)));
+        }
+        long heapBytes = BenchmarkData.settledHeap() - baseline;
+        long heapGcMillis = fullGcMillis();
+        System.out.printf("[search-cache] heap     rows=%d pages=%d heap+%s fullGC avg %dms%n",
+                rows, heapPages.size(), BenchmarkData.mb(heapBytes), heapGcMillis);
+        heapPages = null;
+
+        baseline = BenchmarkData.settledHeap();
+        OffHeapSegments segments = new OffHeapSegments(1024 * 1024);
+        MemberTeamDtoCodec codec = new MemberTeamDtoCodec(segments);
+        List<ByteBuffer> offHeapPages = new ArrayList<>();
+        for (int start = 0; start < rows; start += PAGE_SIZE) {
+            offHeapPages.add(codec.encode(page(start, Math.min(PAGE_SIZE, rows - start))));
+        }
+        long offHeapHeapBytes = BenchmarkData.settledHeap() - baseline;
+        long offHeapGcMillis = fullGcMillis();
+        long decodeStart = System.nanoTime();
+        long checksum = 0;
+        for (ByteBuffer page : offHeapPages) {
+            for (MemberTeamDto dto : codec.decode(page)) {
+                checksum += dto.getAge();
+            }
+        }
+        long decodeMillis = (System.nanoTime() - decodeStart) / 1_000_000;
+        System.out.printf("[search-cache] off-heap rows=%d pages=%d heap+%s direct=%s fullGC avg %dms decode-all %dms (checksum %d)%n",
+                rows, offHeapPages.size(), BenchmarkData.mb(offHeapHeapBytes), BenchmarkData.mb(segments.allocatedBytes()),
+                offHeapGcMillis, decodeMillis, checksum);
+    }
+
+    private static List<MemberTeamDto> page(int start, int size) {
+        List<MemberTeamDto> page = new ArrayList<>(size);
+        for (int i = start; i < start + size; i++) {
+            long teamId = i % TEAMS;
+            page.add(new MemberTeamDto((long) i, "member" + i, i % 100, teamId, "team" + teamId));
+        }
+        return page;
+    }
+
+    // System.gc() 여러번의 평균 GC 시간 (살아있는 캐시 객체를 모두 추적해야 한다)
+    private static long fullGcMillis() {
+        long before = totalGcMillis();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+        }
+        return (totalGcMillis() - before) / GC_ROUNDS;
+    }
+
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
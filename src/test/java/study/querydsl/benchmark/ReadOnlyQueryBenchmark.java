@@ -0,0 +1,84 @@
+package study.querydsl.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberTestRepository;
+
+import java.util.List;
+
+/*
+    엔티티를 반환하는 조회 : 읽기/쓰기 트랜잭션 vs 읽기 전용 트랜잭션 (ReadOnlyQueries 힌트)
+    - 전부 로딩한 직후의 힙 (읽기 전용이면 엔티티 스냅샷이 없다)
+    - 그 상태에서 이어지는 작은 조회들의 시간 (읽기/쓰기는 조회마다 auto flush 로 전체 dirty checking)
+    ./gradlew test --tests '*ReadOnlyQueryBenchmark' -Dbenchmark=true -Dbenchmark.rows=100000
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = {"logging.level.org.hibernate.SQL=info", "logging.level.org.hibernate.type=info"})
+class ReadOnlyQueryBenchmark {
+    private static final int FOLLOW_UP_QUERIES = 50;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    BenchmarkData data;
+    int rows;
+
+    @BeforeAll
+    void setUp() {
+        data = new BenchmarkData(jdbcTemplate);
+        rows = BenchmarkData.rows(100_000);
+        data.insert(rows, 10);
+    }
+
+    @AfterAll
+    void tearDown() {
+        data.delete();
+    }
+
+    @Test
+    void readWriteVsReadOnly() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.printf("[read-only] round %d rows=%d | read-write: %s | read-only: %s%n",
+                    round, rows, measure(readWrite), measure(readOnly));
+        }
+    }
+
+    private String measure(TransactionTemplate tx) {
+        long baseline = BenchmarkData.settledHeap();
+        return tx.execute(status -> {
+            long start = System.nanoTime();
+            List<Member> members = memberTestRepository.basicSelectFrom();
+            long loadMillis = (System.nanoTime() - start) / 1_000_000;
+            long heap = BenchmarkData.usedHeap() - baseline;
+
+            start = System.nanoTime();
+            for (int i = 0; i < FOLLOW_UP_QUERIES; i++) {
+                memberJpaRepository.findByUsername("benchMember" + i);
+            }
+            long followUpMicros = (System.nanoTime() - start) / 1_000 / FOLLOW_UP_QUERIES;
+            return String.format("%d entities load %dms heap+%s, follow-up query %dus",
+                    members.size(), loadMillis, BenchmarkData.mb(heap), followUpMicros);
+        });
+    }
+}
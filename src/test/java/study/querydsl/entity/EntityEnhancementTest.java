@@ -0,0 +1,24 @@
+package study.querydsl.entity;
+
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// build.gradle 의 hibernate enhancement 가 적용됐는지 (스프링 없이 클래스만 확인)
+class EntityEnhancementTest {
+    @Test
+    public void entitiesTrackTheirOwnChanges() {
+        Team team = new Team("teamA");
+        Member member = new Member("member1", 10, team);
+        assertInstanceOf(SelfDirtinessTracker.class, team);
+        assertInstanceOf(SelfDirtinessTracker.class, member);
+
+        SelfDirtinessTracker tracker = (SelfDirtinessTracker) member;
+        tracker.$$_hibernate_clearDirtyAttributes();
+        member.setAge(20);
+
+        assertArrayEquals(new String[]{"age"}, tracker.$$_hibernate_getDirtyAttributes());
+        assertEquals(1, team.getMembers().size()); // association management 없음 : changeTeam 만 반대편을 맞춘다
+    }
+}
@@ -0,0 +1,90 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// changeTeam 은 아직 로딩되지 않은 Team.members 를 초기화하지 않는다
+@SpringBootTest
+@Transactional
+class MemberChangeTeamTest {
+    private static final int TEAM_SIZE = 1_000;
+    private static final int NEW_MEMBERS = 10;
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    EntityManagerFactory emf;
+
+    Long bigTeamId;
+    Long otherTeamId;
+
+    @BeforeEach
+    public void before() {
+        Team bigTeam = new Team("bigTeam");
+        Team otherTeam = new Team("otherTeam");
+        em.persist(bigTeam);
+        em.persist(otherTeam);
+        for (int i = 0; i < TEAM_SIZE; i++) {
+            em.persist(new Member("bigTeamMember" + i, i % 100, bigTeam));
+        }
+        em.flush();
+        em.clear();
+        bigTeamId = bigTeam.getId();
+        otherTeamId = otherTeam.getId();
+    }
+
+    @Test
+    public void assigningToLazyTeamDoesNotLoadMembers() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Team bigTeam = em.find(Team.class, bigTeamId);
+        for (int i = 0; i < NEW_MEMBERS; i++) {
+            em.persist(new Member("newMember" + i, 20, bigTeam));
+        }
+        Member moved = em.createQuery("select m from Member m where m.username = 'bigTeamMember0'", Member.class)
+                .getSingleResult(); // auto flush 포함
+        moved.changeTeam(em.getReference(Team.class, otherTeamId)); // 프록시도 초기화하지 않는다
+        em.flush();
+
+        assertFalse(Hibernate.isInitialized(bigTeam.getMembers()));
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertTrue(statistics.getEntityLoadCount() <= 2); // bigTeam + moved (member 1000건이 아니라)
+        assertEquals(NEW_MEMBERS, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+        System.out.println("statements = " + statistics.getPrepareStatementCount());
+        // select team(캐시 miss 시) + 시퀀스 + insert 10 + select moved + update 1
+        assertTrue(statistics.getPrepareStatementCount() <= NEW_MEMBERS + 5);
+
+        em.clear();
+        assertEquals(TEAM_SIZE - 1 + NEW_MEMBERS, em.find(Team.class, bigTeamId).getMembers().size());
+        assertEquals(otherTeamId, em.find(Member.class, moved.getId()).getTeam().getId());
+    }
+
+    @Test
+    public void loadedMembersStayConsistentInMemory() {
+        Team bigTeam = em.find(Team.class, bigTeamId);
+        Team otherTeam = em.find(Team.class, otherTeamId);
+        assertEquals(TEAM_SIZE, bigTeam.getMembers().size()); // 초기화
+        assertEquals(0, otherTeam.getMembers().size());
+
+        Member moved = bigTeam.getMembers().get(0);
+        moved.changeTeam(otherTeam);
+        Member added = new Member("newMember", 20, bigTeam);
+
+        assertEquals(TEAM_SIZE, bigTeam.getMembers().size()); // -1 +1
+        assertTrue(bigTeam.getMembers().contains(added));
+        assertFalse(bigTeam.getMembers().contains(moved));
+        assertEquals(1, otherTeam.getMembers().size());
+    }
+}
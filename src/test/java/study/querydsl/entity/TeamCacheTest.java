@@ -0,0 +1,64 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 2차 캐시 : 다른 세션(EntityManager)에서 같은 팀을 조회해도 DB 에 가지 않는다
+@SpringBootTest
+class TeamCacheTest {
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    public void findTeamAcrossSessionsHitsSecondLevelCache() {
+        Team teamCache = new Team("teamCache");
+        inTransaction(em -> em.persist(teamCache)); // READ_WRITE : 커밋 시점에 캐시에 들어간다
+        Long teamId = teamCache.getId();
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        try {
+            for (int i = 0; i < 3; i++) {
+                EntityManager em = emf.createEntityManager(); // 매번 새 세션 (1차 캐시 없음)
+                try {
+                    assertEquals("teamCache", em.find(Team.class, teamId).getName());
+                } finally {
+                    em.close();
+                }
+            }
+            assertEquals(0, statistics.getPrepareStatementCount()); // select 없음
+            assertEquals(3, statistics.getDomainDataRegionStatistics(Team.class.getName()).getHitCount());
+
+            // 변경도 커밋 후 캐시에 반영된다
+            inTransaction(em -> em.find(Team.class, teamId).setName("teamCacheRenamed"));
+            EntityManager em = emf.createEntityManager();
+            try {
+                assertEquals("teamCacheRenamed", em.find(Team.class, teamId).getName());
+            } finally {
+                em.close();
+            }
+        } finally {
+            inTransaction(em -> em.remove(em.find(Team.class, teamId)));
+        }
+    }
+
+    private void inTransaction(Consumer<EntityManager> work) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            work.accept(em);
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+}
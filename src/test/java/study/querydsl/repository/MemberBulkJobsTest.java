@@ -0,0 +1,129 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.BulkJobResult;
+import study.querydsl.entity.BulkJobCheckpoint;
+import study.querydsl.entity.Member;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+
+// chunk 마다 커밋하므로 트랜잭션 없이 (데이터와 진행 상황은 이름으로 정리)
+@SpringBootTest
+class MemberBulkJobsTest {
+    private static final int ROWS = 1_050;
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberBulkJobs memberBulkJobs;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < ROWS; i++) {
+                em.persist(new Member("bulkJob" + i, i % 100));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'bulkJob%'").executeUpdate();
+            em.createQuery("delete from BulkJobCheckpoint c where c.name like 'bulkJob%'").executeUpdate();
+        });
+    }
+
+    @Test
+    public void updateResumesAfterTheLastCommittedChunk() {
+        int[] calls = {0};
+        assertThrows(IllegalStateException.class, () ->
+                memberBulkJobs.update("bulkJobAge", member.username.startsWith("bulkJob"), clause -> {
+                    if (++calls[0] == 5) { // 첫 호출은 job 정의(set 목록)를 만들 때
+                        throw new IllegalStateException("crash"); // 4번째 chunk 에서 죽음 -> 롤백
+                    }
+                    clause.set(member.age, member.age.add(1_000));
+                }, 100));
+
+        BulkJobCheckpoint checkpoint = memberBulkJobs.checkpoint("bulkJobAge");
+        assertEquals(3, checkpoint.getChunks());
+        assertFalse(checkpoint.isCompleted());
+
+        BulkJobResult result = memberBulkJobs.update("bulkJobAge", member.username.startsWith("bulkJob"),
+                clause -> clause.set(member.age, member.age.add(1_000)), 100);
+
+        assertTrue(result.isCompleted());
+        assertEquals(ROWS, result.getAffected());
+        tx.executeWithoutResult(status -> { // 모든 member 가 정확히 한번씩 (+1000)
+            assertEquals(ROWS, count("select count(m) from Member m where m.username like 'bulkJob%' and m.age between 1000 and 1099"));
+            assertEquals(1_049, em.createQuery("select m from Member m where m.username = 'bulkJob1049'", Member.class)
+                    .getSingleResult().getAge());
+        });
+    }
+
+    @Test
+    public void refuseToResumeWithDifferentAssignments() {
+        int[] calls = {0};
+        assertThrows(IllegalStateException.class, () ->
+                memberBulkJobs.update("bulkJobSet", member.username.startsWith("bulkJob"), clause -> {
+                    if (++calls[0] == 2) {
+                        throw new IllegalStateException("crash"); // 첫 chunk 에서 죽음 (진행 상황만 남는다)
+                    }
+                    clause.set(member.age, member.age.add(1_000));
+                }, 100));
+        assertEquals(0, memberBulkJobs.checkpoint("bulkJobSet").getChunks());
+
+        // 같은 where 조건, 다른 set -> 이어서 실행하지 않는다
+        assertThrows(IllegalStateException.class, () ->
+                memberBulkJobs.update("bulkJobSet", member.username.startsWith("bulkJob"),
+                        clause -> clause.set(member.age, member.age.add(2_000)), 100));
+        assertThrows(IllegalStateException.class, () ->
+                memberBulkJobs.update("bulkJobSet", member.username.startsWith("bulkJob"),
+                        clause -> clause.set(member.username, "renamed"), 100));
+        assertEquals(0, memberBulkJobs.checkpoint("bulkJobSet").getChunks());
+
+        BulkJobResult result = memberBulkJobs.update("bulkJobSet", member.username.startsWith("bulkJob"),
+                clause -> clause.set(member.age, member.age.add(1_000)), 100);
+        assertEquals(ROWS, result.getAffected());
+    }
+
+    @Test
+    public void deleteInChunksAndReturnStoredResultWhenCompleted() {
+        BulkJobResult result = memberBulkJobs.delete("bulkJobDelete", member.username.startsWith("bulkJob").and(member.age.lt(50)), 500);
+
+        assertTrue(result.isCompleted());
+        assertEquals(550, result.getAffected()); // age 0 ~ 49 : 0 ~ 999 중 500 + 1000 ~ 1049 의 50
+        tx.executeWithoutResult(status ->
+                assertEquals(ROWS - 550, count("select count(m) from Member m where m.username like 'bulkJob%'")));
+
+        BulkJobResult again = memberBulkJobs.delete("bulkJobDelete", member.username.startsWith("bulkJob").and(member.age.lt(50)), 500);
+        assertEquals(result.getChunks(), again.getChunks()); // 이미 완료 -> 실행하지 않음
+
+        assertThrows(IllegalStateException.class, () -> // 같은 이름, 다른 조건
+                memberBulkJobs.delete("bulkJobDelete", member.username.startsWith("bulkJob")));
+    }
+
+    @Test
+    public void refuseToRunInsideTransaction() {
+        assertThrows(IllegalStateException.class, () -> tx.executeWithoutResult(status ->
+                memberBulkJobs.delete("bulkJobInTx", member.username.startsWith("bulkJob"))));
+        assertNull(memberBulkJobs.checkpoint("bulkJobInTx"));
+    }
+
+    private long count(String jpql) {
+        return em.createQuery(jpql, Long.class).getSingleResult();
+    }
+}
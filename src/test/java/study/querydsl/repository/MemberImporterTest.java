@@ -0,0 +1,120 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberImportFailure;
+import study.querydsl.dto.MemberImportProgress;
+import study.querydsl.dto.MemberImportResult;
+import study.querydsl.entity.Member;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// chunk 마다 커밋하므로 트랜잭션 없이 (import 한 데이터는 이름으로 정리)
+@SpringBootTest
+class MemberImporterTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberImporter memberImporter;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    List<MemberImportProgress> progress = new ArrayList<>();
+    List<MemberImportFailure> failures = new ArrayList<>();
+
+    @AfterEach
+    public void after() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'import%'").executeUpdate();
+            em.createQuery("delete from Member m where m.username like 'usernameImport%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name like 'import%'").executeUpdate();
+        });
+    }
+
+    @Test
+    public void importCsvInChunksAndReportFailedRows() throws IOException {
+        StringBuilder csv = new StringBuilder("username,age,teamName\n");
+        for (int i = 0; i < 2_500; i++) {
+            csv.append("importMember").append(i).append(',').append(i % 100).append(",importTeam").append(i % 2).append('\n');
+        }
+        csv.append("importBadAge,abc,importTeam0\n"); // 2502 번째 줄
+        csv.append("\"importQuoted, Member\",30,\n"); // 팀 없음
+        csv.append("import").append("x".repeat(300)).append(",20,importTeam1\n"); // DB 컬럼 길이 초과 -> 마지막 chunk 를 한 줄씩 다시
+
+        MemberImportResult result = memberImporter.importMembers(stream(csv.toString()), MemberImporter.Format.CSV,
+                progress::add, failures::add);
+
+        assertEquals(2_504, result.getLines());
+        assertEquals(2_501, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(3, result.getChunks()); // 1000 + 1000 + 502
+        assertEquals(3, progress.size());
+        assertEquals(1_000, progress.get(0).getImported());
+        assertEquals(2_501, progress.get(2).getTotalImported());
+        assertEquals(1, progress.get(2).getFailed());
+        assertEquals(List.of(2_502L, 2_504L), failures.stream().map(MemberImportFailure::getLine).toList());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertEquals(2, em.createQuery("select count(t) from Team t where t.name like 'import%'", Long.class).getSingleResult());
+            Member member = em.createQuery("select m from Member m join fetch m.team where m.username = 'importMember123'", Member.class)
+                    .getSingleResult();
+            assertEquals(23, member.getAge());
+            assertEquals("importTeam1", member.getTeam().getName());
+            assertNull(em.createQuery("select m from Member m where m.username = 'importQuoted, Member'", Member.class)
+                    .getSingleResult().getTeam());
+        });
+    }
+
+    // username 으로 시작하는 첫 데이터 행을 헤더로 버리지 않는다
+    @Test
+    public void csvFirstRowThatIsNotTheHeaderIsImported() throws IOException {
+        String csv = """
+                usernameImportX,20,importTeamHeader
+                importMember1,30,importTeamHeader
+                """;
+
+        MemberImportResult result = memberImporter.importMembers(stream(csv), MemberImporter.Format.CSV,
+                progress::add, failures::add);
+
+        assertEquals(2, result.getLines());
+        assertEquals(2, result.getImported());
+        assertEquals(0, result.getFailed());
+
+        MemberImportResult withHeader = memberImporter.importMembers(stream(" Username , Age \nimportMember2,40\n"),
+                MemberImporter.Format.CSV, progress::add, failures::add);
+        assertEquals(1, withHeader.getImported());
+        assertEquals(0, withHeader.getFailed());
+    }
+
+    @Test
+    public void importNdjson() throws IOException {
+        String ndjson = """
+                {"username":"importJson1","age":10,"teamName":"importJsonTeam"}
+                {"username":"importJson2","age":20}
+                not json
+                {"age":30}
+                """;
+
+        MemberImportResult result = memberImporter.importMembers(stream(ndjson), MemberImporter.Format.NDJSON,
+                progress::add, failures::add);
+
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(3L, 4L), failures.stream().map(MemberImportFailure::getLine).toList());
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
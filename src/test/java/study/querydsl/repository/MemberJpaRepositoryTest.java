@@ -10,9 +10,11 @@ import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 
 @SpringBootTest
@@ -67,5 +69,48 @@ class MemberJpaRepositoryTest {
         }
     }
 
+    @Test
+    public void streamSearchTest() {
+        Team team = new Team("teamExport");
+        em.persist(team);
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("exportMember" + i, 500 + i, team));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamExport");
+        condition.setAgeGoe(501);
+
+        List<MemberTeamDto> exported = new ArrayList<>();
+        memberJpaRepository.streamSearch(condition, exported::add);
+
+        assertEquals(memberJpaRepository.search(condition).size(), exported.size());
+        assertEquals(List.of("exportMember1", "exportMember2", "exportMember3", "exportMember4"),
+                exported.stream().map(MemberTeamDto::getUsername).toList()); // id 순서
+        assertEquals("teamExport", exported.get(0).getTeamName());
+    }
+
+    @Test
+    public void findAllInChunksTest() {
+        Team team = new Team("teamChunk");
+        em.persist(team);
+        for (int i = 0; i < 7; i++) {
+            em.persist(new Member("chunkMember" + i, 600 + i, team));
+        }
 
-}
\ No newline at end of file
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamChunk");
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<Member> members = new ArrayList<>();
+        memberJpaRepository.findAllInChunks(condition, 3, chunk -> {
+            chunkSizes.add(chunk.size());
+            members.addAll(chunk);
+        });
+
+        assertEquals(List.of(3, 3, 1), chunkSizes);
+        assertEquals("chunkMember0", members.get(0).getUsername());
+        assertEquals("teamChunk", members.get(6).getTeam().getName()); // fetch join 으로 같이 읽음
+        assertFalse(em.contains(members.get(0))); // 영속성 컨텍스트에 올라가지 않는다
+    }
+}
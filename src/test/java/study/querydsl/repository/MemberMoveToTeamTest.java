@@ -0,0 +1,97 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// moveToTeam : member 를 로딩하지 않고 update 한번으로 팀 이동
+@SpringBootTest
+@Transactional
+class MemberMoveToTeamTest {
+    private static final long ID_BASE = 2_000_000_000L; // 시퀀스 / 벤치마크 데이터와 겹치지 않는 id
+    private static final int ROWS = 100_000;
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void moveHundredThousandMembersWithOneUpdate() {
+        Team moveFrom = new Team("moveFrom");
+        Team moveTo = new Team("moveTo");
+        em.persist(moveFrom);
+        em.persist(moveTo);
+        em.flush();
+        jdbcTemplate.update("insert into member (member_id, username, age, team_id) " +
+                "select ? + x, concat('moveMember', x), mod(x, 100), ? from system_range(1, ?)", ID_BASE, moveFrom.getId(), ROWS);
+        em.clear();
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("moveFrom");
+        long moved = memberRepository.moveToTeam(condition, moveTo.getId());
+
+        assertEquals(ROWS, moved);
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertTrue(statistics.getEntityLoadCount() <= 1); // 대상 팀만 (member 10만건이 아니라)
+        assertEquals(0, statistics.getEntityUpdateCount()); // dirty checking 으로 나가는 update 없음
+        System.out.println("statements = " + statistics.getPrepareStatementCount());
+        // 팀 사전 reload + select team(캐시 miss 시) + update 1
+        assertTrue(statistics.getPrepareStatementCount() <= 3);
+
+        assertEquals(ROWS, em.createQuery("select count(m) from Member m where m.team.id = :teamId", Long.class)
+                .setParameter("teamId", moveTo.getId())
+                .getSingleResult());
+    }
+
+    @Test
+    public void loadedTeamMembersAreNotStaleAfterMove() {
+        Team teamA = new Team("moveTeamA");
+        Team teamB = new Team("moveTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int age = 10; age <= 30; age += 10) {
+            em.persist(new Member("moveMember" + age, age, teamA));
+        }
+        em.flush();
+        em.clear();
+
+        Team loaded = em.find(Team.class, teamA.getId());
+        assertEquals(3, loaded.getMembers().size()); // 초기화
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("moveTeamA");
+        condition.setAgeGoe(20);
+        assertEquals(2, memberRepository.moveToTeam(condition, teamB.getId()));
+        assertEquals(0, memberRepository.moveToTeam(condition, teamB.getId())); // 남은 대상 없음
+
+        assertFalse(em.contains(loaded)); // 이동 후 영속성 컨텍스트를 비운다
+        Team reloaded = em.find(Team.class, teamA.getId());
+        assertFalse(Hibernate.isInitialized(reloaded.getMembers()));
+        assertEquals(1, reloaded.getMembers().size());
+        assertEquals(2, em.find(Team.class, teamB.getId()).getMembers().size());
+    }
+
+    @Test
+    public void moveToUnknownTeamFails() {
+        assertThrows(IllegalArgumentException.class, () -> memberRepository.moveToTeam(new MemberSearchCondition(), -1L));
+    }
+}
@@ -1,20 +1,31 @@
 package study.querydsl.repository;
 
+import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.CursorSlice;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.InvalidSearchRequestException;
+import study.querydsl.repository.support.PagingStrategy;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
 
 @SpringBootTest
 @Transactional
@@ -23,6 +34,10 @@ class MemberRepositoryTest {
     EntityManager em;
     @Autowired
     MemberRepository memberRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MemberCountCache memberCountCache;
     @Test
     public void basicTest() {
         Member member = new Member("member1", 10);
@@ -100,4 +115,256 @@ class MemberRepositoryTest {
             System.out.println("memberTeamDto = " + memberTeamDto);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void searchByCursor(){
+        Team teamCursor = new Team("teamCursor"); // 다른 테스트가 커밋한 데이터와 섞이지 않도록 전용 팀으로 조회
+        em.persist(teamCursor);
+
+        Member member1 = new Member("member1", 10, teamCursor);
+        Member member2 = new Member("member2", 20, teamCursor);
+        Member member3 = new Member("member3", 20, teamCursor);
+        Member member4 = new Member("member4", 40, teamCursor);
+
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamCursor");
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age"));
+
+        CursorSlice<MemberTeamDto> first = memberRepository.searchByCursor(condition, null, pageRequest);
+        assertEquals(3, first.getContent().size());
+        assertTrue(first.isHasNext());
+        // 같은 나이(20)는 id 역순
+        assertEquals(List.of("member4", "member3", "member2"),
+                first.getContent().stream().map(MemberTeamDto::getUsername).toList());
+
+        CursorSlice<MemberTeamDto> second = memberRepository.searchByCursor(condition, first.getNextCursor(), pageRequest);
+        assertEquals(1, second.getContent().size());
+        assertEquals("member1", second.getContent().get(0).getUsername());
+        assertFalse(second.isHasNext());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    public void searchByCursorWithNullUsername(){
+        Team teamCursor = new Team("teamCursorNull");
+        em.persist(teamCursor);
+        Member null1 = new Member(null, 10, teamCursor);
+        Member null2 = new Member(null, 20, teamCursor);
+        Member empty = new Member("", 30, teamCursor);
+        Member named = new Member("b", 40, teamCursor);
+        em.persist(null1);
+        em.persist(null2);
+        em.persist(empty);
+        em.persist(named);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamCursorNull");
+        // 한 행씩 넘기면서 null 과 "" 가 섞인 구간도 빠짐 / 중복 없이 지나가는지
+        assertEquals(List.of(null1.getId(), null2.getId(), empty.getId(), named.getId()),
+                walkByCursor(condition, PageRequest.of(0, 1, Sort.by(Sort.Direction.ASC, "username"))));
+        assertEquals(List.of(named.getId(), empty.getId(), null2.getId(), null1.getId()),
+                walkByCursor(condition, PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "username"))));
+    }
+
+    @Test
+    public void searchByInvalidCursor(){
+        Team teamCursor = new Team("teamCursorInvalid");
+        em.persist(teamCursor);
+        em.persist(new Member("member1", 10, teamCursor));
+        em.persist(new Member("member2", 20, teamCursor)); // 한 행씩이면 다음 페이지(커서)가 반드시 있다
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamCursorInvalid");
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age"));
+
+        assertThrows(InvalidSearchRequestException.class, () -> memberRepository.searchByCursor(condition, "not a cursor!", pageRequest));
+        String usernameCursor = memberRepository.searchByCursor(condition, null, PageRequest.of(0, 1, Sort.by("username"))).getNextCursor();
+        assertNotNull(usernameCursor);
+        // 정렬이 다른 커서
+        assertThrows(InvalidSearchRequestException.class, () -> memberRepository.searchByCursor(condition, usernameCursor, pageRequest));
+    }
+
+    private List<Long> walkByCursor(MemberSearchCondition condition, PageRequest pageRequest) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorSlice<MemberTeamDto> slice = memberRepository.searchByCursor(condition, cursor, pageRequest);
+            slice.getContent().forEach(dto -> ids.add(dto.getMemberId()));
+            cursor = slice.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    @Test
+    public void searchPageComplexDeferredJoin(){
+        Team teamDeferredA = new Team("teamDeferredA");
+        Team teamDeferredB = new Team("teamDeferredB");
+
+        em.persist(teamDeferredA);
+        em.persist(teamDeferredB);
+
+        // 다른 테스트가 커밋한 데이터와 섞이지 않도록 나이 범위로 구분
+        em.persist(new Member("member1", 1040, teamDeferredA));
+        em.persist(new Member("member2", 1030, teamDeferredA));
+        em.persist(new Member("member3", 1020, teamDeferredB));
+        em.persist(new Member("member4", 1010, teamDeferredB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(1000);
+        Sort byAge = Sort.by(Sort.Direction.ASC, "age");
+
+        // offset 0, 1 은 일반 조인 / offset 2, 3 은 deferred join (테스트 설정 threshold = 2)
+        List<String> usernames = new ArrayList<>();
+        for (int page = 0; page < 4; page++) {
+            Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(page, 1, byAge));
+            assertEquals(4, result.getTotalElements());
+            usernames.add(result.getContent().get(0).getUsername());
+        }
+        assertEquals(List.of("member4", "member3", "member2", "member1"), usernames);
+
+        condition.setTeamName("teamDeferredA");
+        Page<MemberTeamDto> deferred = memberRepository.searchPageComplex(condition, PageRequest.of(1, 2, byAge));
+        assertTrue(deferred.getContent().isEmpty());
+        assertEquals(2, deferred.getTotalElements());
+    }
+
+    @Test
+    public void searchPageComplexWindowCount(){
+        Team teamWindow = new Team("teamWindow");
+        em.persist(teamWindow);
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("member" + i, i * 10, teamWindow));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamWindow");
+        Sort byAge = Sort.by(Sort.Direction.DESC, "age");
+
+        // 0 : 일반 조인, 2 : deferred join (테스트 설정 threshold = 2), 5 : 범위를 넘어간 빈 페이지
+        for (int page : new int[]{0, 2, 5}) {
+            PageRequest pageRequest = PageRequest.of(page, 1, byAge);
+            Page<MemberTeamDto> twoQueries = memberRepository.searchPageComplex(condition, pageRequest, PagingStrategy.TWO_QUERIES);
+            Page<MemberTeamDto> windowCount = memberRepository.searchPageComplex(condition, pageRequest, PagingStrategy.WINDOW_COUNT);
+
+            assertEquals(5, windowCount.getTotalElements());
+            assertEquals(twoQueries.getTotalElements(), windowCount.getTotalElements());
+            assertEquals(twoQueries.getContent(), windowCount.getContent());
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 카운트는 별도 커넥션에서 돌기 때문에 데이터를 커밋해야 보인다
+    public void searchPageComplexParallelCount(){
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long teamId = tx.execute(status -> {
+            Team teamParallel = new Team("teamParallel");
+            em.persist(teamParallel);
+            for (int i = 0; i < 5; i++) {
+                em.persist(new Member("member" + i, i * 10, teamParallel));
+            }
+            return teamParallel.getId();
+        });
+
+        try {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setTeamName("teamParallel");
+            PageRequest pageRequest = PageRequest.of(1, 2, Sort.by(Sort.Direction.ASC, "age"));
+
+            Page<MemberTeamDto> sequential = tx.execute(status ->
+                    memberRepository.searchPageComplex(condition, pageRequest, PagingStrategy.TWO_QUERIES));
+            memberCountCache.invalidateAll(); // 위에서 캐시된 건수를 쓰지 않도록
+            Page<MemberTeamDto> parallel = tx.execute(status ->
+                    memberRepository.searchPageComplex(condition, pageRequest, PagingStrategy.PARALLEL_COUNT));
+
+            assertEquals(5, parallel.getTotalElements());
+            assertEquals(sequential.getTotalElements(), parallel.getTotalElements());
+            assertEquals(sequential.getContent(), parallel.getContent());
+        } finally {
+            tx.executeWithoutResult(status -> {
+                em.createQuery("delete from Member m where m.team.id = :teamId").setParameter("teamId", teamId).executeUpdate();
+                em.createQuery("delete from Team t where t.id = :teamId").setParameter("teamId", teamId).executeUpdate();
+            });
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 커밋 전 쓰기가 있는 트랜잭션은 캐시를 거치지 않으므로 데이터를 커밋
+    public void searchPageComplexCountCache(){
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long teamId = tx.execute(status -> {
+            Team teamCountCache = new Team("teamCountCache");
+            em.persist(teamCountCache);
+            for (int i = 0; i < 3; i++) {
+                em.persist(new Member("member" + i, i * 10, teamCountCache));
+            }
+            return teamCountCache.getId();
+        });
+
+        try {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setTeamName("teamCountCache");
+            condition.setUsername(""); // 빈 문자열은 조건 없음과 같은 캐시 키
+
+            long misses = memberCountCache.stats().getMisses();
+            assertEquals(3, memberRepository.searchPageComplex(condition, PageRequest.of(0, 1)).getTotalElements());
+            assertEquals(misses + 1, memberCountCache.stats().getMisses());
+
+            long hits = memberCountCache.stats().getHits();
+            assertEquals(3, memberRepository.searchPageComplex(condition, PageRequest.of(1, 1)).getTotalElements());
+            assertEquals(hits + 1, memberCountCache.stats().getHits());
+
+            // persist -> 컨텐츠 쿼리 전 flush : 자기 트랜잭션에서는 4건, 커밋 전 건수는 캐시를 읽지도 넣지도 않는다
+            tx.executeWithoutResult(status -> {
+                em.persist(new Member("member3", 30, em.getReference(Team.class, teamId)));
+                long hitsBefore = memberCountCache.stats().getHits();
+                long missesBefore = memberCountCache.stats().getMisses();
+                assertEquals(4, memberRepository.searchPageComplex(condition, PageRequest.of(1, 1)).getTotalElements());
+                assertEquals(4, memberRepository.searchPageComplex(condition, PageRequest.of(1, 1)).getTotalElements());
+                assertEquals(hitsBefore, memberCountCache.stats().getHits());
+                assertEquals(missesBefore, memberCountCache.stats().getMisses());
+                status.setRollbackOnly();
+            });
+            assertEquals(3, memberRepository.searchPageComplex(condition, PageRequest.of(1, 1)).getTotalElements()); // 롤백된 건수는 없다
+
+            // 커밋된 쓰기, 벌크 연산도 무효화
+            tx.executeWithoutResult(status -> em.persist(new Member("member3", 30, em.getReference(Team.class, teamId))));
+            assertEquals(4, memberRepository.searchPageComplex(condition, PageRequest.of(1, 1)).getTotalElements());
+            tx.executeWithoutResult(status -> new JPAQueryFactory(em)
+                    .delete(member)
+                    .where(member.username.eq("member3"), member.team.id.eq(teamId))
+                    .execute());
+            assertEquals(3, memberRepository.searchPageComplex(condition, PageRequest.of(1, 1)).getTotalElements());
+        } finally {
+            tx.executeWithoutResult(status -> {
+                em.createQuery("delete from Member m where m.team.id = :teamId").setParameter("teamId", teamId).executeUpdate();
+                em.createQuery("delete from Team t where t.id = :teamId").setParameter("teamId", teamId).executeUpdate();
+            });
+        }
+    }
+
+    @Test
+    public void searchSlice(){
+        Team teamSlice = new Team("teamSlice");
+        em.persist(teamSlice);
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("member" + i, i * 10, teamSlice));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamSlice");
+        Sort byAge = Sort.by(Sort.Direction.ASC, "age");
+
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 2, byAge));
+        assertEquals(2, first.getContent().size());
+        assertTrue(first.hasNext());
+
+        Slice<MemberTeamDto> last = memberRepository.searchSlice(condition, PageRequest.of(2, 2, byAge));
+        assertEquals(1, last.getContent().size());
+        assertEquals("member4", last.getContent().get(0).getUsername());
+        assertFalse(last.hasNext());
+    }
+}
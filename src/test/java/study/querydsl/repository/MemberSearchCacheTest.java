@@ -0,0 +1,216 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.CacheStats;
+import study.querydsl.repository.support.PagingStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+
+// 캐시는 커밋된 데이터만 담으므로 트랜잭션 없이 (데이터는 TransactionTemplate 으로 커밋 후 정리)
+@SpringBootTest
+class MemberSearchCacheTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberSearchCache memberSearchCache;
+    @Autowired
+    MemberSearchQueries memberSearchQueries;
+    @Autowired
+    TeamNameDictionary teamNameDictionary;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    Long teamId;
+
+    @BeforeEach
+    public void before() {
+        memberSearchCache.setEnabled(true); // 테스트 설정에서는 꺼져 있다
+        tx = new TransactionTemplate(transactionManager);
+        teamId = tx.execute(status -> {
+            Team teamSearchCache = new Team("teamSearchCache");
+            em.persist(teamSearchCache);
+            for (int i = 0; i < 4; i++) {
+                em.persist(new Member("searchCacheMember" + i, 900 + i, teamSearchCache));
+            }
+            return teamSearchCache.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        memberSearchCache.setEnabled(false);
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.team.id = :teamId").setParameter("teamId", teamId).executeUpdate();
+            em.createQuery("delete from Team t where t.id = :teamId").setParameter("teamId", teamId).executeUpdate();
+        });
+    }
+
+    @Test
+    public void cachedUntilCommitOrBulkWrite() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamSearchCache");
+        PageRequest pageRequest = PageRequest.of(0, 2);
+
+        assertEquals(4, memberRepository.searchPageSimple(condition, pageRequest).getTotalElements());
+        long hits = memberSearchCache.stats().getHits();
+        assertEquals(4, memberRepository.searchPageSimple(condition, pageRequest).getTotalElements());
+        assertEquals(2, memberRepository.searchPageComplex(condition, pageRequest).getContent().size());
+        assertEquals(4, memberRepository.searchPageComplex(condition, pageRequest).getTotalElements());
+        assertEquals(hits + 2, memberSearchCache.stats().getHits()); // searchPageSimple 1번 + searchPageComplex 1번
+
+        // 커밋된 persist -> post-commit 리스너가 비운다
+        long invalidations = memberSearchCache.invalidations();
+        tx.executeWithoutResult(status -> em.persist(new Member("searchCacheMember4", 904, em.find(Team.class, teamId))));
+        assertTrue(memberSearchCache.invalidations() > invalidations);
+        assertEquals(5, memberRepository.searchPageSimple(condition, pageRequest).getTotalElements());
+        assertEquals(5, memberRepository.searchPageComplex(condition, pageRequest).getTotalElements());
+
+        // 벌크 delete (커밋 이벤트 없음) -> 테이블 버전으로 미스
+        tx.executeWithoutResult(status -> new JPAQueryFactory(em)
+                .delete(member)
+                .where(member.username.eq("searchCacheMember4"))
+                .execute());
+        assertEquals(4, memberRepository.searchPageSimple(condition, pageRequest).getTotalElements());
+        assertEquals(4, memberRepository.searchPageComplex(condition, pageRequest).getTotalElements());
+    }
+
+    // 페이지 없는 search, 전략을 지정한 searchPageComplex 는 캐시하지 않는다
+    @Test
+    public void unpagedSearchAndExplicitStrategyAreNotCached() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamSearchCache");
+        PageRequest pageRequest = PageRequest.of(0, 2);
+        CacheStats before = memberSearchCache.stats();
+
+        assertEquals(4, memberRepository.search(condition).size());
+        assertEquals(4, memberRepository.search(condition).size());
+        assertEquals(4, memberRepository.searchPageComplex(condition, pageRequest, PagingStrategy.WINDOW_COUNT).getTotalElements());
+        assertEquals(4, memberRepository.searchPageComplex(condition, pageRequest, PagingStrategy.WINDOW_COUNT).getTotalElements());
+
+        CacheStats after = memberSearchCache.stats();
+        assertEquals(before.getHits(), after.getHits());
+        assertEquals(before.getMisses(), after.getMisses());
+        assertEquals(before.getSize(), after.getSize());
+    }
+
+    @Test
+    public void bypassWhenTransactionHasWrites() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamSearchCache");
+        PageRequest pageRequest = PageRequest.of(0, 2);
+        memberRepository.searchPageSimple(condition, pageRequest); // 캐시에 넣어둠
+
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("searchCacheUncommitted", 999, em.find(Team.class, teamId)));
+            em.flush();
+            long bypasses = memberSearchCache.bypasses();
+            assertEquals(5, memberRepository.searchPageSimple(condition, pageRequest).getTotalElements()); // 자기 트랜잭션의 쓰기는 보인다
+            assertEquals(bypasses + 1, memberSearchCache.bypasses());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(4, memberRepository.searchPageSimple(condition, pageRequest).getTotalElements()); // 롤백된 데이터는 캐시에 없다
+    }
+
+    @Test
+    public void concurrentIdenticalSearchesRunOneQuery() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamSearchCache");
+        condition.setAgeGoe(901);
+        int callers = 8;
+        long coalescedBefore = memberSearchCache.coalesced();
+        teamNameDictionary.idsOf("teamSearchCache"); // 사전 로딩 쿼리는 미리
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<List<MemberTeamDto>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> memberSearchCache.get("search", condition, null, () -> {
+                    // 나머지 요청이 모두 이 검색을 기다리기 시작한 뒤에 실행
+                    long deadline = System.currentTimeMillis() + 5_000;
+                    while (memberSearchCache.coalesced() < coalescedBefore + callers - 1 && System.currentTimeMillis() < deadline) {
+                        Thread.onSpinWait();
+                    }
+                    return memberSearchQueries.fetch(condition);
+                })));
+            }
+            for (Future<List<MemberTeamDto>> result : results) {
+                assertEquals(3, result.get().size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(callers - 1, memberSearchCache.coalesced() - coalescedBefore);
+        assertEquals(1, statistics.getPrepareStatementCount()); // SQL 은 한번만
+    }
+
+    @Test
+    public void waiterRunsOwnSearchWhenLeaderFlushedUncommittedRows() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamSearchCache");
+        long coalescedBefore = memberSearchCache.coalesced();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch leaderSearching = new CountDownLatch(1);
+            Future<List<String>> leader = executor.submit(() -> tx.execute(status -> {
+                em.persist(new Member("searchCacheUnflushed", 999, em.find(Team.class, teamId))); // flush 전
+                List<String> usernames = memberSearchCache.get("usernames", condition, null, () -> {
+                    leaderSearching.countDown();
+                    long deadline = System.currentTimeMillis() + 5_000;
+                    while (memberSearchCache.coalesced() == coalescedBefore && System.currentTimeMillis() < deadline) {
+                        Thread.onSpinWait(); // waiter 가 이 검색을 기다리기 시작한 뒤에 실행
+                    }
+                    return usernames(); // auto flush -> 커밋 전 행이 결과에 포함된다
+                });
+                status.setRollbackOnly();
+                return usernames;
+            }));
+            leaderSearching.await();
+            Future<List<String>> waiter = executor.submit(() -> memberSearchCache.get("usernames", condition, null, this::usernames));
+
+            assertTrue(leader.get().contains("searchCacheUnflushed")); // 자기 트랜잭션의 쓰기는 보인다
+            assertEquals(coalescedBefore + 1, memberSearchCache.coalesced()); // waiter 는 leader 를 기다렸지만
+            assertFalse(waiter.get().contains("searchCacheUnflushed")); // 커밋 전 행을 받지 않고 직접 검색
+            assertEquals(4, waiter.get().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<String> usernames() {
+        return em.createQuery("select m.username from Member m where m.team.id = :teamId", String.class)
+                .setParameter("teamId", teamId)
+                .getResultList();
+    }
+}
@@ -0,0 +1,98 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.InvalidSearchRequestException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest
+@Transactional
+class MemberSearchQueriesTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberSearchQueries memberSearchQueries;
+
+    @Test
+    public void sameResultForAllShapes() {
+        Team teamShapeA = new Team("teamShapeA");
+        Team teamShapeB = new Team("teamShapeB");
+        em.persist(teamShapeA);
+        em.persist(teamShapeB);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("shapeMember" + (i % 3), 700 + i, i % 2 == 0 ? teamShapeA : teamShapeB));
+        }
+        em.flush();
+        em.clear();
+
+        for (int shape = 0; shape < 16; shape++) {
+            MemberSearchCondition condition = condition(shape);
+            assertEquals(direct(condition), memberSearchQueries.fetch(condition, List.of(member.id.asc()), null, null), "shape " + shape);
+            assertEquals(direct(condition).size(), memberSearchQueries.count(condition), "shape " + shape);
+        }
+
+        int cached = memberSearchQueries.cachedShapes();
+        for (int shape = 0; shape < 16; shape++) { // 같은 모양은 다시 직렬화하지 않는다
+            memberSearchQueries.fetch(condition(shape), List.of(member.id.asc()), 0L, 5);
+        }
+        assertEquals(cached, memberSearchQueries.cachedShapes());
+    }
+
+    private MemberSearchCondition condition(int shape) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if ((shape & 1) != 0) {
+            condition.setUsername("shapeMember1");
+        }
+        if ((shape & 2) != 0) {
+            condition.setTeamName("teamShapeB");
+        }
+        if ((shape & 4) != 0) {
+            condition.setAgeGoe(703);
+        }
+        if ((shape & 8) != 0) {
+            condition.setAgeLoe(708);
+        }
+        return condition;
+    }
+
+    @Test
+    public void rejectOffsetBeyondInt() {
+        assertThrows(InvalidSearchRequestException.class, () -> memberSearchQueries.fetch(new MemberSearchCondition(),
+                List.of(member.id.asc()), Integer.MAX_VALUE + 1L, 10));
+    }
+
+    // 매번 querydsl 로 쿼리를 만드는 기존 방식
+    private List<MemberTeamDto> direct(MemberSearchCondition condition) {
+        return new JPAQueryFactory(em)
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(condition.getUsername() != null ? member.username.eq(condition.getUsername()) : null,
+                        condition.getTeamName() != null ? team.name.eq(condition.getTeamName()) : null,
+                        condition.getAgeGoe() != null ? member.age.goe(condition.getAgeGoe()) : null,
+                        condition.getAgeLoe() != null ? member.age.loe(condition.getAgeLoe()) : null)
+                .orderBy(member.id.asc())
+                .fetch();
+    }
+}
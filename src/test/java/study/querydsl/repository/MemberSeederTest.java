@@ -0,0 +1,66 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.SeedReport;
+import study.querydsl.entity.Member;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 적재는 chunk 마다 커밋하므로 트랜잭션 없이 (이번에 넣은 id 구간만 정리)
+@SpringBootTest
+class MemberSeederTest {
+    private static final int ROWS = 25_000; // chunk-size(10000) 보다 커야 스레드를 나눈다
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberSeeder memberSeeder;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    long lastMemberId;
+    long lastTeamId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        lastMemberId = tx.execute(status -> em.createQuery("select coalesce(max(m.id), 0) from Member m", Long.class).getSingleResult());
+        lastTeamId = tx.execute(status -> em.createQuery("select coalesce(max(t.id), 0) from Team t", Long.class).getSingleResult());
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.id > :id").setParameter("id", lastMemberId).executeUpdate();
+            em.createQuery("delete from Team t where t.id > :id").setParameter("id", lastTeamId).executeUpdate();
+        });
+    }
+
+    @Test
+    public void seedsDeterministicRowsWithSeveralThreads() {
+        SeedReport report = memberSeeder.seed(ROWS, 3, 2);
+        System.out.println("report = " + report + ", rows/sec = " + report.getRowsPerSecond());
+
+        assertEquals(ROWS, report.getRows());
+        assertEquals(2, report.getThreads());
+        tx.executeWithoutResult(status -> {
+            assertEquals(ROWS, em.createQuery("select count(m) from Member m where m.id > :id", Long.class)
+                    .setParameter("id", lastMemberId).getSingleResult());
+            assertEquals(ROWS, em.createQuery("select count(distinct m.username) from Member m where m.id > :id", Long.class)
+                    .setParameter("id", lastMemberId).getSingleResult());
+
+            Member member = em.createQuery("select m from Member m join fetch m.team where m.id > :id and m.username = 'member12345'", Member.class)
+                    .setParameter("id", lastMemberId).getSingleResult();
+            assertEquals(45, member.getAge()); // i % 100
+            assertEquals("teamA", member.getTeam().getName()); // 12345 % 3 == 0
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.support.OffHeapSegments;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemberTeamDtoCodecTest {
+    MemberTeamDtoCodec codec = new MemberTeamDtoCodec(new OffHeapSegments(4 * 1024));
+
+    @Test
+    public void roundTrip() {
+        List<MemberTeamDto> rows = List.of(
+                new MemberTeamDto(1L, "member1", 10, 100L, "teamA"),
+                new MemberTeamDto(Long.MAX_VALUE, "회원2", 0, 101L, "팀B"),
+                new MemberTeamDto(3L, null, -5, null, null), // 팀 없는 회원
+                new MemberTeamDto(4L, "", 200, 100L, "teamA"));
+
+        ByteBuffer encoded = codec.encode(rows);
+
+        assertTrue(encoded.isDirect());
+        assertEquals(rows, codec.decode(encoded));
+        assertEquals(rows.get(2), codec.decode(encoded).get(2)); // 필요한 행만 decode
+        assertThrows(IndexOutOfBoundsException.class, () -> codec.decode(encoded).get(4));
+        assertEquals(List.of(), codec.decode(codec.encode(List.of())));
+    }
+
+    @Test
+    public void manyPagesAcrossSegments() {
+        List<ByteBuffer> pages = new ArrayList<>();
+        List<List<MemberTeamDto>> expected = new ArrayList<>();
+        for (int page = 0; page < 200; page++) {
+            List<MemberTeamDto> rows = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                long id = page * 20L + i;
+                rows.add(new MemberTeamDto(id, "member" + id, (int) (id % 100), id % 3, "team" + (id % 3)));
+            }
+            expected.add(rows);
+            pages.add(codec.encode(rows));
+        }
+        for (int page = 0; page < pages.size(); page++) {
+            assertEquals(expected.get(page), codec.decode(pages.get(page)));
+        }
+    }
+
+    @Test
+    public void teamNamesAreStoredPerBuffer() {
+        ByteBuffer before = codec.encode(List.of(new MemberTeamDto(1L, "member1", 10, 100L, "teamA")));
+        ByteBuffer renamed = codec.encode(List.of(new MemberTeamDto(1L, "member1", 10, 100L, "teamRenamed")));
+
+        // 팀 이름이 바뀌어도 각 buffer 는 인코딩할 때의 이름으로 decode (codec 에 이름이 쌓이지 않는다)
+        assertEquals("teamA", codec.decode(before).get(0).getTeamName());
+        assertEquals("teamRenamed", codec.decode(renamed).get(0).getTeamName());
+    }
+}
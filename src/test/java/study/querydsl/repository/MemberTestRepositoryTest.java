@@ -0,0 +1,147 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.CountQueries;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest
+@Transactional
+class MemberTestRepositoryTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("member" + i, i * 10, i % 2 == 0 ? teamA : teamB));
+        }
+        em.persist(new Member("noTeam", 50));
+    }
+
+    @Test
+    public void applyPaginationTotalMatchesPlainCount() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(30);
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age"));
+
+        Page<Member> result = memberTestRepository.applyPagination(condition, pageRequest);
+        Page<Member> result2 = memberTestRepository.applyPagination2(condition, pageRequest);
+
+        assertEquals(plainCount(condition), result.getTotalElements());
+        assertEquals(plainCount(condition), result2.getTotalElements());
+        assertEquals(3, result.getContent().size());
+
+        condition.setTeamName("teamA");
+        assertEquals(plainCount(condition), memberTestRepository.applyPagination(condition, pageRequest).getTotalElements());
+    }
+
+    // 읽기/쓰기 트랜잭션에 참여하면 read-only / FlushMode.MANUAL 힌트를 넣지 않는다
+    @Test
+    public void basicSelectInReadWriteTransactionFlushesAndTracksChanges() {
+        em.persist(new Member("unflushed", 60)); // auto flush 로 조회에 보여야 한다
+
+        List<Member> members = memberTestRepository.basicSelectFrom();
+
+        assertTrue(members.stream().anyMatch(m -> "unflushed".equals(m.getUsername())));
+        Session session = em.unwrap(Session.class);
+        assertTrue(members.stream().noneMatch(session::isReadOnly));
+    }
+
+    @Test
+    public void countQueryDropsOrderAndUnusedLeftJoin() {
+        JPAQuery<?> contentQuery = new JPAQueryFactory(em)
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .where(member.age.goe(30))
+                .orderBy(member.age.desc());
+
+        String jpql = CountQueries.countQuery(contentQuery, em).toString();
+
+        assertTrue(jpql.startsWith("select count(member1.id)"));
+        assertFalse(jpql.contains("order by"));
+        assertFalse(jpql.contains("join"));
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(30);
+        assertEquals(plainCount(condition), CountQueries.countQuery(contentQuery, em).fetchOne());
+    }
+
+    @Test
+    public void countQueryKeepsLeftJoinReferencedByPredicate() {
+        JPAQuery<?> contentQuery = new JPAQueryFactory(em)
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .where(team.name.eq("teamB"));
+
+        String jpql = CountQueries.countQuery(contentQuery, em).toString();
+
+        assertTrue(jpql.contains("left join member1.team as team"));
+        assertFalse(jpql.contains("fetch"));
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        assertEquals(plainCount(condition), CountQueries.countQuery(contentQuery, em).fetchOne());
+    }
+
+    // 연관관계가 아닌 엔티티 조인은 조건에 맞는 행이 여러개면 행 수가 늘어난다
+    @Test
+    public void countQueryKeepsEntityLeftJoin() {
+        em.persist(new Team("member1"));
+        em.persist(new Team("member1")); // member1 과 이름이 같은 팀 2개 -> 2행
+        JPAQuery<?> contentQuery = new JPAQueryFactory(em)
+                .selectFrom(member)
+                .leftJoin(team).on(member.username.eq(team.name));
+
+        String jpql = CountQueries.countQuery(contentQuery, em).toString();
+
+        assertTrue(jpql.contains("left join"));
+        assertEquals(em.createQuery("select count(m) from Member m left join Team t on m.username = t.name", Long.class).getSingleResult(),
+                CountQueries.countQuery(contentQuery, em).fetchOne());
+    }
+
+    // alias 없는 컬렉션 조인도 행 수가 늘어난다
+    @Test
+    public void countQueryKeepsUnaliasedCollectionLeftJoin() {
+        JPAQuery<?> contentQuery = new JPAQueryFactory(em)
+                .selectFrom(team)
+                .leftJoin(team.members);
+
+        String jpql = CountQueries.countQuery(contentQuery, em).toString();
+
+        assertTrue(jpql.contains("left join team.members"));
+        assertEquals(em.createQuery("select count(t) from Team t left join t.members", Long.class).getSingleResult(),
+                CountQueries.countQuery(contentQuery, em).fetchOne());
+    }
+
+    private long plainCount(MemberSearchCondition condition) {
+        return em.createQuery("select count(m) from Member m left join m.team t" +
+                        " where (:teamName is null or t.name = :teamName)" +
+                        " and (:ageGoe is null or m.age >= :ageGoe)", Long.class)
+                .setParameter("teamName", condition.getTeamName())
+                .setParameter("ageGoe", condition.getAgeGoe())
+                .getSingleResult();
+    }
+}
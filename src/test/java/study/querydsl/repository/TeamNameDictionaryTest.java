@@ -0,0 +1,121 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class TeamNameDictionaryTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TeamNameDictionary teamNameDictionary;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    public void refreshOnTeamWrite() {
+        Team teamDict = new Team("teamDict");
+        em.persist(teamDict);
+        assertNull(teamNameDictionary.idsOf("teamDictUnflushed")); // 모르는 이름
+
+        em.flush(); // insert -> team 버전 변경
+        assertEquals(List.of(teamDict.getId()), teamNameDictionary.idsOf("teamDict"));
+        assertEquals("teamDict", teamNameDictionary.nameOf(teamDict.getId()));
+
+        teamDict.setName("teamDictRenamed");
+        em.flush(); // update -> 다시 읽는다
+        assertNull(teamNameDictionary.idsOf("teamDict"));
+        assertEquals(List.of(teamDict.getId()), teamNameDictionary.idsOf("teamDictRenamed"));
+        assertEquals("teamDictRenamed", teamNameDictionary.nameOf(teamDict.getId()));
+    }
+
+    @Test
+    public void searchByTeamNameUsesDictionary() {
+        Team teamDictA = new Team("teamDictA");
+        Team teamDictB = new Team("teamDictB");
+        em.persist(teamDictA);
+        em.persist(teamDictB);
+        for (int i = 0; i < 6; i++) {
+            em.persist(new Member("dictMember" + i, 800 + i, i % 3 == 0 ? teamDictA : teamDictB));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamDictB");
+
+        // flush 전 : 사전에 아직 없을 수 있다 -> team.name 조인 조건
+        List<MemberTeamDto> beforeFlush = sorted(memberRepository.search(condition));
+        em.flush();
+        em.clear();
+        // flush 후 : member.team.id 조건 + 사전에서 팀 이름
+        assertNotNull(teamNameDictionary.idsOf("teamDictB"));
+        List<MemberTeamDto> afterFlush = sorted(memberRepository.search(condition));
+
+        assertEquals(4, afterFlush.size());
+        assertEquals(beforeFlush, afterFlush);
+        assertTrue(afterFlush.stream().allMatch(dto -> "teamDictB".equals(dto.getTeamName())));
+
+        Page<MemberTeamDto> page = memberRepository.searchPageSimple(condition, PageRequest.of(0, 3));
+        assertEquals(4, page.getTotalElements());
+        assertEquals(3, page.getContent().size());
+    }
+
+    @Test
+    public void searchSeesUnflushedTeamRename() {
+        Team teamDict = new Team("teamDictBefore");
+        em.persist(teamDict);
+        em.persist(new Member("dictRenameMember", 30, teamDict));
+        em.flush();
+        assertNotNull(teamNameDictionary.idsOf("teamDictBefore")); // 사전에 이전 이름
+
+        teamDict.setName("teamDictAfter"); // flush 전
+        MemberSearchCondition after = new MemberSearchCondition();
+        after.setTeamName("teamDictAfter");
+        List<MemberTeamDto> result = memberRepository.search(after);
+        assertEquals(1, result.size());
+        assertEquals("teamDictAfter", result.get(0).getTeamName());
+
+        MemberSearchCondition before = new MemberSearchCondition();
+        before.setTeamName("teamDictBefore");
+        assertTrue(memberRepository.search(before).isEmpty());
+    }
+
+    @Test
+    public void uncommittedTeamsAreNotShared() throws Exception {
+        Team teamDict = new Team("teamDictUncommitted");
+        em.persist(teamDict);
+        em.flush(); // 커밋 전 insert
+        assertEquals(List.of(teamDict.getId()), teamNameDictionary.idsOf("teamDictUncommitted")); // 자기 트랜잭션에는 보인다
+
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try { // 다른 트랜잭션(스레드)의 사전에는 없다 -> 공유 사전은 커밋된 팀만
+            assertNull(other.submit(() -> teamNameDictionary.idsOf("teamDictUncommitted")).get());
+            assertNull(other.submit(() -> teamNameDictionary.nameOf(teamDict.getId())).get());
+        } finally {
+            other.shutdown();
+        }
+        // 다른 스레드가 공유 사전을 다시 읽은 뒤에도 자기 쓰기는 보인다
+        assertEquals("teamDictUncommitted", teamNameDictionary.nameOf(teamDict.getId()));
+    }
+
+    private List<MemberTeamDto> sorted(List<MemberTeamDto> content) {
+        return content.stream().sorted(Comparator.comparing(MemberTeamDto::getMemberId)).toList();
+    }
+}
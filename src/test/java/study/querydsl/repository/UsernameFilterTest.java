@@ -0,0 +1,123 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 필터는 커밋된 데이터로 만들어지므로 트랜잭션 없이 (데이터는 TransactionTemplate 으로 커밋 후 정리)
+@SpringBootTest
+class UsernameFilterTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    UsernameFilter usernameFilter;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> em.persist(new Member("filterMember", 10)));
+        usernameFilter.rebuild();
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> em.createQuery("delete from Member m where m.username like 'filter%'").executeUpdate());
+    }
+
+    @Test
+    public void definiteMissSkipsQuery() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long shortCircuits = usernameFilter.shortCircuits();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertTrue(memberRepository.findByUsername("filterNobody").isEmpty());
+        assertTrue(memberJpaRepository.findByUsername_Querydsl("filterNobody").isEmpty());
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(shortCircuits + 2, usernameFilter.shortCircuits());
+
+        long hits = usernameFilter.hits();
+        assertEquals(1, memberRepository.findByUsername("filterMember").size());
+        assertEquals(hits + 1, usernameFilter.hits());
+    }
+
+    @Test
+    public void persistAndRenameAreVisibleWithoutRebuild() {
+        Long id = tx.execute(status -> {
+            Member created = new Member("filterCreated", 20);
+            em.persist(created);
+            return created.getId();
+        });
+        assertEquals(1, memberRepository.findByUsername("filterCreated").size());
+
+        tx.executeWithoutResult(status -> em.find(Member.class, id).setUsername("filterRenamed"));
+        assertEquals(1, memberRepository.findByUsername("filterRenamed").size());
+        assertTrue(memberRepository.findByUsername("filterCreated").isEmpty()); // 이전 이름은 오탐으로만 남는다
+    }
+
+    @Test
+    public void unflushedPersistInSameTransactionIsFound() {
+        List<Member> result = tx.execute(status -> {
+            em.persist(new Member("filterUnflushed", 30));
+            return memberRepository.findByUsername("filterUnflushed"); // 필터를 거치지 않고 쿼리 (auto flush)
+        });
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    public void readWriteTransactionSkipsFilter() {
+        long passThroughs = usernameFilter.passThroughs();
+        tx.executeWithoutResult(status -> assertTrue(memberRepository.findByUsername("filterNobody").isEmpty()));
+        assertEquals(passThroughs + 1, usernameFilter.passThroughs()); // flush 안된 변경이 있을 수 있으므로 쿼리
+
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        long shortCircuits = usernameFilter.shortCircuits();
+        readOnlyTx.executeWithoutResult(status -> assertTrue(memberRepository.findByUsername("filterNobody").isEmpty()));
+        assertEquals(shortCircuits + 1, usernameFilter.shortCircuits());
+    }
+
+    @Test
+    public void bulkUsernameUpdateIsVisible() {
+        tx.executeWithoutResult(status -> em.createQuery("update Member m set m.username = 'filterBulk' where m.username = 'filterMember'")
+                .executeUpdate());
+        assertEquals(1, memberRepository.findByUsername("filterBulk").size()); // 재생성 전에는 필터를 거치지 않는다
+
+        usernameFilter.rebuild();
+        assertTrue(usernameFilter.isUsable());
+        assertEquals(1, memberRepository.findByUsername("filterBulk").size());
+    }
+
+    @Test
+    public void detectsBulkUsernameWrites() {
+        assertFalse(UsernameFilter.writesUsernameInBulk("/* update study.querydsl.entity.Member */ update member set age=?, team_id=?, username=? where member_id=?"));
+        assertFalse(UsernameFilter.writesUsernameInBulk("update member set age=? where age<?"));
+        assertTrue(UsernameFilter.writesUsernameInBulk("update member set username=? where age<?"));
+        assertTrue(UsernameFilter.writesUsernameInBulk("update member m1_0 set username=?"));
+        assertTrue(UsernameFilter.writesUsernameInBulk("insert into member (age, username, member_id) select age, username, member_id + 1000 from member"));
+        assertFalse(UsernameFilter.writesUsernameInBulk("insert into member (age, team_id, username, member_id) values (?, ?, ?, ?)"));
+    }
+}
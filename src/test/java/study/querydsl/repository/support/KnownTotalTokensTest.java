@@ -0,0 +1,67 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KnownTotalTokensTest {
+    TableWriteTracker tableWriteTracker = new TableWriteTracker();
+    KnownTotalTokens knownTotalTokens = new KnownTotalTokens(tableWriteTracker, "test-secret");
+
+    @Test
+    public void reuseTotalForSameConditionWithoutWrites() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        long version = knownTotalTokens.currentVersion("member", "team");
+        String token = knownTotalTokens.issue(condition.fields(), 42, version);
+
+        assertEquals(42L, knownTotalTokens.verify(token, condition.fields(), "member", "team"));
+
+        MemberSearchCondition other = new MemberSearchCondition();
+        other.setTeamName("teamB");
+        assertNull(knownTotalTokens.verify(token, other.fields(), "member", "team"));
+    }
+
+    // toString 으로는 같아 보이는 두 조건 (username 값에 필드 구분자가 들어있는 경우)
+    @Test
+    public void rejectConditionWithShiftedFieldBoundary() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("a, teamName=b");
+        MemberSearchCondition shifted = new MemberSearchCondition();
+        shifted.setUsername("a");
+        shifted.setTeamName("b, teamName=null");
+
+        String token = knownTotalTokens.issue(condition.fields(), 42, knownTotalTokens.currentVersion("member", "team"));
+
+        assertEquals(42L, knownTotalTokens.verify(token, condition.fields(), "member", "team"));
+        assertNull(knownTotalTokens.verify(token, shifted.fields(), "member", "team"));
+    }
+
+    @Test
+    public void rejectAfterWriteOrTampering() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        String token = knownTotalTokens.issue(condition.fields(), 42, knownTotalTokens.currentVersion("member", "team"));
+
+        String[] parts = token.split("\\.");
+        String forged = Base64.getUrlEncoder().withoutPadding().encodeToString("1.0".getBytes()) + "." + parts[1];
+        assertNull(knownTotalTokens.verify(forged, condition.fields(), "member", "team"));
+        assertNull(knownTotalTokens.verify("garbage", condition.fields(), "member", "team"));
+
+        tableWriteTracker.inspect("/* insert for study.querydsl.entity.Member */insert into member (age,team_id,username,member_id) values (?,?,?,?)");
+        assertNull(knownTotalTokens.verify(token, condition.fields(), "member", "team"));
+    }
+
+    @Test
+    public void rejectTokenFromAnotherInstanceOrBoot() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        String token = knownTotalTokens.issue(condition.fields(), 42, knownTotalTokens.currentVersion("member", "team"));
+
+        // 같은 secret, 같은 버전 숫자 (재시작 직후 / 다른 인스턴스)
+        KnownTotalTokens restarted = new KnownTotalTokens(new TableWriteTracker(), "test-secret");
+        assertNull(restarted.verify(token, condition.fields(), "member", "team"));
+    }
+}
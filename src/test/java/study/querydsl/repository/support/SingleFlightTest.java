@@ -0,0 +1,129 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+    static final int CALLERS = 8;
+
+    @Test
+    public void concurrentCallersShareOneExecution() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(5_000);
+        AtomicInteger executions = new AtomicInteger();
+
+        List<Future<Integer>> results = runConcurrently(() -> singleFlight.execute("key", () -> {
+            executions.incrementAndGet();
+            awaitFollowers(singleFlight); // 나머지가 모두 기다리기 시작할 때까지 붙잡아 둔다
+            return 42;
+        }));
+
+        for (Future<Integer> result : results) {
+            assertEquals(42, result.get());
+        }
+        assertEquals(1, executions.get());
+        assertEquals(CALLERS - 1, singleFlight.coalesced());
+        assertEquals(0, singleFlight.inFlight());
+
+        assertEquals(7, singleFlight.execute("key", () -> 7)); // 끝난 뒤에 온 요청은 새로 실행
+    }
+
+    @Test
+    public void failureIsPropagatedToWaitingCallers() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(5_000);
+        IllegalArgumentException failure = new IllegalArgumentException("boom");
+
+        List<Future<Integer>> results = runConcurrently(() -> singleFlight.execute("key", () -> {
+            awaitFollowers(singleFlight);
+            throw failure;
+        }));
+
+        for (Future<Integer> result : results) {
+            ExecutionException thrown = assertThrows(ExecutionException.class, result::get);
+            assertSame(failure, thrown.getCause());
+        }
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    public void unshareableResultIsOnlyReturnedToLeader() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(5_000);
+        AtomicInteger executions = new AtomicInteger();
+
+        List<Future<Integer>> results = runConcurrently(() -> singleFlight.execute("key", () -> {
+            if (executions.incrementAndGet() == 1) {
+                awaitFollowers(singleFlight);
+                return -1; // leader 결과 (나눠주면 안됨)
+            }
+            return 42;
+        }, value -> value >= 0));
+
+        int leaderResults = 0;
+        for (Future<Integer> result : results) {
+            if (result.get() == -1) {
+                leaderResults++;
+            } else {
+                assertEquals(42, result.get());
+            }
+        }
+        assertEquals(1, leaderResults);
+        assertEquals(CALLERS, executions.get()); // 기다리던 요청은 각자 실행
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    public void waitingCallerTimesOut() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(50);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                sleep(500);
+                return 1;
+            }));
+            while (singleFlight.inFlight() == 0) {
+                Thread.onSpinWait();
+            }
+            assertThrows(IllegalStateException.class, () -> singleFlight.execute("key", () -> 2));
+            assertEquals(1, leader.get()); // leader 는 영향 없음
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Future<Integer>> runConcurrently(Callable<Integer> call) {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(call));
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void awaitFollowers(SingleFlight<?, ?> singleFlight) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (singleFlight.coalesced() < CALLERS - 1 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 트랜잭션 경계를 직접 다루므로 트랜잭션 없이 (커밋된 데이터는 이름으로 정리)
+@SpringBootTest
+class TableWriteTrackerTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TableWriteTracker tableWriteTracker;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void after() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.createQuery("delete from Member m where m.username = 'trackerInner'").executeUpdate());
+    }
+
+    @Test
+    public void requiresNewTransactionTracksAndBumpsItsOwnWrites() {
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+        TransactionTemplate inner = new TransactionTemplate(transactionManager);
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        outer.executeWithoutResult(outerStatus -> {
+            em.persist(new Team("trackerOuter"));
+            em.flush();
+            assertTrue(tableWriteTracker.hasUncommittedWrites("team"));
+
+            long[] memberVersionBeforeCommit = new long[1];
+            inner.executeWithoutResult(innerStatus -> {
+                em.persist(new Member("trackerInner"));
+                em.flush();
+                assertTrue(tableWriteTracker.hasUncommittedWrites("member"));
+                assertFalse(tableWriteTracker.hasUncommittedWrites("team")); // 바깥 트랜잭션의 쓰기는 안쪽 것이 아니다
+                memberVersionBeforeCommit[0] = tableWriteTracker.version("member");
+            });
+            assertTrue(tableWriteTracker.version("member") > memberVersionBeforeCommit[0]); // 안쪽 커밋 시점에 버전을 올린다
+
+            assertTrue(tableWriteTracker.hasUncommittedWrites("team")); // 재개된 바깥 트랜잭션의 목록
+            assertFalse(tableWriteTracker.hasUncommittedWrites("member"));
+            outerStatus.setRollbackOnly();
+        });
+        assertFalse(tableWriteTracker.hasUncommittedWrites("team"));
+    }
+}